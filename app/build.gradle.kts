@@ -39,12 +39,19 @@ android {
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
+        // java.time on API 25 (DateFormatter)
+        isCoreLibraryDesugaringEnabled = true
     }
 
     buildFeatures {
         viewBinding = true
         buildConfig = true
     }
+
+    // JVM unit tests run against android.jar stubs; let Log and Handler calls no-op
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -76,9 +83,15 @@ dependencies {
     // Card Stack View for Tinder-like swipe
     implementation("com.github.yuyakaido:CardStackView:2.3.4")
 
+    // Background work - scheduled feed prefetch
+    implementation("androidx.work:work-runtime:2.9.0")
+
     // Google Location Services (optional for trending news)
     implementation("com.google.android.gms:play-services-location:21.0.1")
 
+    // Java 8+ library APIs (java.time) on older Android versions
+    coreLibraryDesugaring("com.android.tools:desugar_jdk_libs:2.0.4")
+
     // Testing
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
@@ -7,6 +7,11 @@ import androidx.appcompat.app.AppCompatDelegate;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.nmims.bigmanting.helpers.ArticleRanker;
+import com.nmims.bigmanting.helpers.NetworkQuality;
+import com.nmims.bigmanting.helpers.RetrofitClient;
+import com.nmims.bigmanting.helpers.SwipeLog;
+import com.nmims.bigmanting.services.FeedPrefetchWorker;
 import com.nmims.bigmanting.utils.SharedPrefsHelper;
 
 /**
@@ -34,6 +39,20 @@ public class SwipeNewsApplication extends Application {
 
         db.setFirestoreSettings(settings);
 
+        // Give the HTTP client a cache directory for NewsAPI responses
+        RetrofitClient.init(this);
+
+        // Follow the network so timeouts, page size and prefetch depth can adapt
+        NetworkQuality.getInstance().start(this);
+
+        // Start reading swipe history and ranker weights in the background
+        // so the first feed can already be filtered and ranked
+        SwipeLog.getInstance(this);
+        ArticleRanker.getInstance(this);
+
+        // Warm all category feeds in the background (unmetered + charging only)
+        FeedPrefetchWorker.schedule(this);
+
         // Apply saved theme preference on app start
         SharedPrefsHelper prefsHelper = new SharedPrefsHelper(this);
         if (prefsHelper.isDarkMode()) {
@@ -2,6 +2,10 @@ package com.nmims.bigmanting.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -14,18 +18,31 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.DefaultItemAnimator;
 
+import com.bumptech.glide.Glide;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import com.google.firebase.auth.FirebaseAuth;
 import com.nmims.bigmanting.R;
 import com.nmims.bigmanting.adapters.CardAdapter;
+import com.nmims.bigmanting.helpers.ArticleRanker;
+import com.nmims.bigmanting.helpers.CardStateMapper;
+import com.nmims.bigmanting.helpers.FeedMerger;
+import com.nmims.bigmanting.helpers.FeedPager;
 import com.nmims.bigmanting.helpers.FirestoreHelper;
-import com.nmims.bigmanting.helpers.NewsApiService;
-import com.nmims.bigmanting.helpers.RetrofitClient;
+import com.nmims.bigmanting.helpers.FirestoreWriteBatcher;
+import com.nmims.bigmanting.helpers.ImagePrefetcher;
+import com.nmims.bigmanting.helpers.ImageRequestPolicy;
+import com.nmims.bigmanting.helpers.NetworkMetrics;
+import com.nmims.bigmanting.helpers.NetworkQuality;
+import com.nmims.bigmanting.helpers.NewsRepository;
+import com.nmims.bigmanting.helpers.RequestScope;
+import com.nmims.bigmanting.helpers.SavedArticleIndex;
+import com.nmims.bigmanting.helpers.SavedArticleSync;
+import com.nmims.bigmanting.helpers.SessionCleaner;
+import com.nmims.bigmanting.helpers.SwipeLog;
 import com.nmims.bigmanting.models.ArticleModel;
-import com.nmims.bigmanting.models.NewsResponse;
 import com.nmims.bigmanting.utils.Constants;
+import com.nmims.bigmanting.utils.DateFormatter;
 import com.nmims.bigmanting.utils.SharedPrefsHelper;
 import com.yuyakaido.android.cardstackview.CardStackLayoutManager;
 import com.yuyakaido.android.cardstackview.CardStackListener;
@@ -34,13 +51,10 @@ import com.yuyakaido.android.cardstackview.Direction;
 import com.yuyakaido.android.cardstackview.StackFrom;
 import com.yuyakaido.android.cardstackview.SwipeableMethod;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 /**
  * MainActivity - News Feed with Swipeable Cards
  * Fetches news from NewsAPI and allows Tinder-style swiping
@@ -49,21 +63,56 @@ import retrofit2.Response;
 public class MainActivity extends AppCompatActivity implements CardStackListener {
 
     private static final String TAG = "MainActivity";
+    // Share of the deck height taken by the card image (rest is the text block)
+    private static final float CARD_IMAGE_HEIGHT_RATIO = 0.55f;
+    private static final int CARD_MARGIN_DP = 12;
+    // Swiped articles remembered by the "seen" filter
+    private static final int SEEN_CAPACITY = 2000;
+    // Cards left in the deck when the next feed page is requested
+    private static final int PAGE_PREFETCH_DISTANCE = 5;
 
     private CardStackView cardStackView;
     private CardStackLayoutManager layoutManager;
     private CardAdapter cardAdapter;
+    private ImagePrefetcher imagePrefetcher;
     private ProgressBar progressBar;
     private TextView emptyView;
     private ChipGroup categoryChips;
     private FloatingActionButton fabSaved;
     private Toolbar toolbar;
 
-    private List<ArticleModel> articles;
-    private NewsApiService newsApiService;
-    private FirestoreHelper firestoreHelper;
+    // Merges, ranks and maps feeds into cards off the main thread; the adapter holds the deck
+    private CardStateMapper cardStateMapper;
+    // Bumped by every deck replacement, so mapped cards of an older deck are dropped
+    private int deckVersion;
+    // True while a merge runs; later appends wait so each merges against the deck before it
+    private boolean merging;
+    private final ArrayDeque<Runnable> pendingAppends = new ArrayDeque<>();
+    private NewsRepository newsRepository;
+    // Feed loads of this screen; a new load or onDestroy cancels the previous one
+    private RequestScope feedScope;
+    private FeedPager feedPager;
+    private FeedMerger feedMerger;
+    private SwipeLog swipeLog;
+    private ArticleRanker ranker;
+    private FirestoreWriteBatcher writeBatcher;
+    private SavedArticleIndex savedIndex;
+    private SavedArticleSync savedArticleSync;
     private SharedPrefsHelper prefsHelper;
     private String currentCategory = Constants.CATEGORY_GENERAL;
+    // Category the deck was filled from; null until the first feed arrives
+    private String deckCategory;
+    // When the current top card appeared, for swipe dwell time
+    private long topCardShownAt;
+    // Keeps "5m ago" labels current while the screen is visible
+    private final Handler dateHandler = new Handler(Looper.getMainLooper());
+    private final Runnable dateTicker = new Runnable() {
+        @Override
+        public void run() {
+            cardAdapter.refreshDates();
+            dateHandler.postDelayed(this, DateFormatter.DATE_REFRESH_INTERVAL_MS);
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -71,10 +120,65 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
         setContentView(R.layout.activity_main);
 
         // Initialize helpers
-        newsApiService = RetrofitClient.getInstance().getNewsApiService();
-        firestoreHelper = new FirestoreHelper();
+        newsRepository = NewsRepository.getInstance(this);
+        feedScope = new RequestScope(this);
+        feedPager = new FeedPager(newsRepository, feedScope, PAGE_PREFETCH_DISTANCE);
+        feedPager.setPageListener(new FeedPager.PageListener() {
+            @Override
+            public void onPage(List<ArticleModel> page) {
+                appendPage(page);
+            }
+
+            @Override
+            public void onPageFailed(String error) {
+                showLoading(false);
+                if (layoutManager.getTopPosition() >= cardAdapter.getItemCount()) {
+                    showEmptyView(true);
+                    Toast.makeText(MainActivity.this, "Couldn't load more articles. Pull to refresh!",
+                            Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onExhausted() {
+                showLoading(false);
+                if (layoutManager.getTopPosition() >= cardAdapter.getItemCount()) {
+                    showEmptyView(true);
+                    Toast.makeText(MainActivity.this, "No more articles. Pull to refresh!",
+                            Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+        swipeLog = SwipeLog.getInstance(this);
+        feedMerger = new FeedMerger(swipeLog, SEEN_CAPACITY);
+        ranker = ArticleRanker.getInstance(this);
+        FirestoreHelper firestoreHelper = new FirestoreHelper();
+        writeBatcher = FirestoreWriteBatcher.getInstance();
+        writeBatcher.setBatchListener(new FirestoreWriteBatcher.BatchListener() {
+            @Override
+            public void onBatchCommitted(int saved, int deleted) {
+                if (saved > 0) {
+                    Toast.makeText(MainActivity.this, saved == 1 ? "Article saved!"
+                            : saved + " articles saved!", Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onBatchFailed(String error) {
+                Toast.makeText(MainActivity.this, "Failed to save: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
         prefsHelper = new SharedPrefsHelper(this);
 
+        // Local index of saved articles, for "Saved" badges without Firestore reads;
+        // the same listener keeps the saved-articles search index current
+        savedIndex = SavedArticleIndex.getInstance(this);
+        savedArticleSync = SavedArticleSync.getInstance(this);
+        savedArticleSync.start(firestoreHelper);
+
+        // One-time move of saved articles to canonical IDs (per signed-in user)
+        migrateArticleIds(firestoreHelper);
+
         // Initialize views
         initViews();
 
@@ -91,7 +195,7 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
         setupCategoryChips();
 
         // Load news
-        loadNews(currentCategory);
+        loadNews(currentCategory, false);
 
         // FAB to open saved articles
         fabSaved.setOnClickListener(v -> {
@@ -125,45 +229,78 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
         layoutManager.setCanScrollVertical(false);
         layoutManager.setSwipeableMethod(SwipeableMethod.AutomaticAndManual);
 
-        articles = new ArrayList<>();
-        cardAdapter = new CardAdapter(articles);
+        cardStateMapper = new CardStateMapper(feedMerger, ranker);
+        cardAdapter = new CardAdapter();
+        cardAdapter.setSavedIndex(savedIndex);
+        savedIndex.setOnIndexChangedListener(this::refreshSavedBadges);
 
         cardStackView.setLayoutManager(layoutManager);
         cardStackView.setAdapter(cardAdapter);
         cardStackView.setItemAnimator(new DefaultItemAnimator());
+
+        // Decode card images at a fixed size once the deck is measured
+        imagePrefetcher = new ImagePrefetcher(Glide.with(this),
+                ImageRequestPolicy.getInstance(this), NetworkQuality.getInstance());
+        cardStackView.post(this::updateCardImageSize);
+    }
+
+    /**
+     * Compute the card image size from the deck size and share it with the
+     * adapter and prefetcher so bound and preloaded images use the same cache key
+     */
+    private void updateCardImageSize() {
+        int margin = Math.round(CARD_MARGIN_DP * getResources().getDisplayMetrics().density);
+        int width = cardStackView.getWidth() - 2 * margin;
+        int height = Math.round((cardStackView.getHeight() - 2 * margin) * CARD_IMAGE_HEIGHT_RATIO);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        cardAdapter.setImageSize(width, height);
+        imagePrefetcher.setTargetSize(width, height);
+        if (cardAdapter.getItemCount() > 0) {
+            cardAdapter.notifyDataSetChanged();
+            imagePrefetcher.prefetch(cardAdapter.getStates(), layoutManager.getTopPosition());
+        }
+    }
+
+    /**
+     * Rebind the saved badge of the cards currently in the stack
+     */
+    private void refreshSavedBadges() {
+        int top = layoutManager.getTopPosition();
+        int count = Math.min(layoutManager.getVisibleCount(), cardAdapter.getItemCount() - top);
+        if (count > 0) {
+            cardAdapter.notifyItemRangeChanged(top, count, CardAdapter.PAYLOAD_SAVED_STATE);
+        }
     }
 
     /**
      * Set up category filter chips
      */
     private void setupCategoryChips() {
-        String[] categories = {
-                Constants.CATEGORY_GENERAL,
-                Constants.CATEGORY_TECHNOLOGY,
-                Constants.CATEGORY_BUSINESS,
-                Constants.CATEGORY_SPORTS,
-                Constants.CATEGORY_ENTERTAINMENT,
-                Constants.CATEGORY_HEALTH,
-                Constants.CATEGORY_SCIENCE
-        };
-
-        for (String category : categories) {
+        for (String category : Constants.CATEGORIES) {
             Chip chip = new Chip(this);
             chip.setText(category.substring(0, 1).toUpperCase() + category.substring(1));
             chip.setCheckable(true);
             chip.setChecked(category.equals(currentCategory));
             chip.setOnClickListener(v -> {
                 currentCategory = category;
-                loadNews(currentCategory);
+                imagePrefetcher.cancelAll();
+                loadNews(currentCategory, false);
             });
             categoryChips.addView(chip);
         }
     }
 
     /**
-     * Load news from NewsAPI
+     * Load news for a category
+     * Shows the locally stored feed immediately and revalidates it in the background
+     * Cancels the previous load, so only the latest category reaches the deck
+     * @param category News category
+     * @param forceRefresh Revalidate even if the stored feed is still fresh
      */
-    private void loadNews(String category) {
+    private void loadNews(String category, boolean forceRefresh) {
         showLoading(true);
 
         // Get API key from Constants or SharedPrefs
@@ -172,45 +309,158 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
             apiKey = Constants.NEWS_API_KEY;
         }
 
-        String finalApiKey = apiKey;
-        Call<NewsResponse> call = newsApiService.getHeadlinesByCategory(category, finalApiKey);
+        // Country headlines, merged with the worldwide ones for the category
+        String country = prefsHelper.getCountry();
 
-        call.enqueue(new Callback<NewsResponse>() {
+        int generation = feedScope.begin();
+        feedPager.reset(category, country, apiKey, generation);
+        feedScope.track(newsRepository.loadFeed(category, country, apiKey, forceRefresh,
+                new NewsRepository.FeedCallback() {
             @Override
-            public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+            public void onArticles(List<ArticleModel> feed, boolean fromCache, int pageSize) {
+                // Ignore late results of a superseded load
+                if (!feedScope.isCurrent(generation)) {
+                    return;
+                }
                 showLoading(false);
+                feedPager.setPageSize(pageSize);
+
+                if (feed.isEmpty()) {
+                    showEmptyView(true);
+                    Toast.makeText(MainActivity.this, "No articles found", Toast.LENGTH_SHORT).show();
+                    return;
+                }
 
-                if (response.isSuccessful() && response.body() != null) {
-                    NewsResponse newsResponse = response.body();
-                    if (newsResponse.getArticles() != null && !newsResponse.getArticles().isEmpty()) {
-                        articles.clear();
-                        articles.addAll(newsResponse.getArticles());
-                        cardAdapter.notifyDataSetChanged();
-                        showEmptyView(false);
-                        Log.d(TAG, "Loaded " + articles.size() + " articles");
+                // On a cold start the swipe history may still be loading; merge once it
+                // is in, or cards swiped in earlier sessions come back
+                swipeLog.whenLoaded(() -> {
+                    if (!feedScope.isCurrent(generation)) {
+                        return;
+                    }
+                    if (category.equals(deckCategory)) {
+                        appendToDeck(feed, fromCache);
                     } else {
-                        showEmptyView(true);
-                        Toast.makeText(MainActivity.this, "No articles found", Toast.LENGTH_SHORT).show();
+                        replaceDeck(category, feed, fromCache);
                     }
+                });
+            }
+
+            @Override
+            public void onFailure(String error, boolean hasCachedData) {
+                if (!feedScope.isCurrent(generation)) {
+                    return;
+                }
+                showLoading(false);
+
+                if (hasCachedData) {
+                    Toast.makeText(MainActivity.this, "Offline - showing saved feed",
+                            Toast.LENGTH_SHORT).show();
                 } else {
                     showEmptyView(true);
-                    Toast.makeText(MainActivity.this, "Failed to load news: " + response.message(),
-                            Toast.LENGTH_SHORT).show();
-                    Log.e(TAG, "API Error: " + response.code() + " - " + response.message());
+                    Toast.makeText(MainActivity.this, error, Toast.LENGTH_SHORT).show();
                 }
+                Log.e(TAG, "Feed error: " + error);
             }
+        }));
+    }
 
-            @Override
-            public void onFailure(Call<NewsResponse> call, Throwable t) {
-                showLoading(false);
+    /**
+     * Fill the deck from a new category, skipping seen and duplicate stories
+     * and putting the stories the user is most likely to save first
+     */
+    private void replaceDeck(String category, List<ArticleModel> feed, boolean fromCache) {
+        deckCategory = category;
+        int version = ++deckVersion;
+        // Appends queued for the old deck are superseded
+        pendingAppends.clear();
+        merging = true;
+        imagePrefetcher.cancelAll();
+
+        cardStateMapper.merge(Collections.emptyList(), feed, category, states -> {
+            if (version != deckVersion) {
+                return;
+            }
+            cardAdapter.setStates(states);
+            layoutManager.setTopPosition(0);
+            imagePrefetcher.prefetch(states, 0);
+            showEmptyView(states.isEmpty());
+            Log.d(TAG, "Loaded " + states.size() + " of " + feed.size() + " articles"
+                    + (fromCache ? " from cache" : ""));
+            onMergeDone();
+            // The seen filter can leave a short deck; top it up straight away
+            feedPager.onPositionChanged(0, states.size());
+        });
+    }
+
+    /**
+     * Append the new stories of a refreshed feed behind the cards not yet swiped
+     */
+    private void appendToDeck(List<ArticleModel> feed, boolean fromCache) {
+        appendNewArticles(feed, added -> {
+            if (layoutManager.getTopPosition() >= cardAdapter.getItemCount()) {
                 showEmptyView(true);
-                Toast.makeText(MainActivity.this, "Network error: " + t.getMessage(),
-                        Toast.LENGTH_SHORT).show();
-                Log.e(TAG, "Network error", t);
+                Toast.makeText(this, "No new articles", Toast.LENGTH_SHORT).show();
+            }
+            Log.d(TAG, "Appended " + added + " of " + feed.size() + " articles"
+                    + (fromCache ? " from cache" : ""));
+        });
+    }
+
+    /**
+     * Append a further feed page; keeps paging while the deck is still short,
+     * and at once if the page held only seen or duplicate stories
+     */
+    private void appendPage(List<ArticleModel> page) {
+        appendNewArticles(page, added -> {
+            Log.d(TAG, "Appended " + added + " of " + page.size() + " paged articles");
+            if (added == 0) {
+                feedPager.loadNextPage();
+                return;
             }
+            showLoading(false);
+            showEmptyView(false);
+            feedPager.onPositionChanged(layoutManager.getTopPosition(), cardAdapter.getItemCount());
         });
     }
 
+    /**
+     * Rank the unseen, non-duplicate stories of a feed and append them behind
+     * the cards not yet swiped; the cards are range-inserted once mapped
+     * Waits for a merge that is still running, so its cards are not added twice
+     * @param onAppended Runs with the number of cards added, unless the deck was replaced
+     */
+    private void appendNewArticles(List<ArticleModel> feed, AppendCallback onAppended) {
+        if (merging) {
+            pendingAppends.add(() -> appendNewArticles(feed, onAppended));
+            return;
+        }
+        merging = true;
+        int version = deckVersion;
+        List<ArticleModel> remaining = cardAdapter.getArticlesFrom(layoutManager.getTopPosition());
+        cardStateMapper.merge(remaining, feed, deckCategory, states -> {
+            if (version != deckVersion) {
+                return;
+            }
+            if (!states.isEmpty()) {
+                cardAdapter.appendStates(states);
+                imagePrefetcher.prefetch(cardAdapter.getStates(), layoutManager.getTopPosition());
+            }
+            onAppended.onAppended(states.size());
+            onMergeDone();
+        });
+    }
+
+    /**
+     * Start the next queued append once a merge has been applied
+     */
+    private void onMergeDone() {
+        merging = false;
+        Runnable next = pendingAppends.poll();
+        if (next != null) {
+            next.run();
+        }
+    }
+
     // CardStackListener methods
     @Override
     public void onCardDragging(Direction direction, float ratio) {
@@ -221,24 +471,40 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
     public void onCardSwiped(Direction direction) {
         int position = layoutManager.getTopPosition() - 1;
 
-        if (position < 0 || position >= articles.size()) {
+        // The swiped card, as bound (the deck may already hold a newer feed)
+        ArticleModel swipedArticle = cardAdapter.getArticleAt(position);
+        if (swipedArticle == null) {
             return;
         }
 
-        ArticleModel swipedArticle = articles.get(position);
+        feedMerger.markSeen(swipedArticle);
+        long dwellMs = topCardShownAt > 0 ? SystemClock.elapsedRealtime() - topCardShownAt : 0;
+        if (direction == Direction.Right || direction == Direction.Left) {
+            ranker.train(swipedArticle, deckCategory, direction == Direction.Right);
+        }
+
+        // Keep the next cards' images decoded ahead of the user, and the next page coming
+        imagePrefetcher.prefetch(cardAdapter.getStates(), layoutManager.getTopPosition());
+        feedPager.onPositionChanged(layoutManager.getTopPosition(), cardAdapter.getItemCount());
 
         if (direction == Direction.Right) {
             // Swipe right - Save article to Firestore
+            swipeLog.record(swipedArticle, SwipeLog.Action.SAVE, dwellMs);
             saveArticle(swipedArticle);
         } else if (direction == Direction.Left) {
-            // Swipe left - Skip (no action needed)
+            // Swipe left - Skip, remembered so it is not shown again
+            swipeLog.record(swipedArticle, SwipeLog.Action.SKIP, dwellMs);
             Log.d(TAG, "Article skipped: " + swipedArticle.getTitle());
         }
 
-        // Check if no more cards
-        if (layoutManager.getTopPosition() == articles.size()) {
-            showEmptyView(true);
-            Toast.makeText(this, "No more articles. Pull to refresh!", Toast.LENGTH_SHORT).show();
+        // Out of cards: wait for the page in flight, or tell the user
+        if (layoutManager.getTopPosition() >= cardAdapter.getItemCount()) {
+            if (feedPager.isLoading()) {
+                showLoading(true);
+            } else {
+                showEmptyView(true);
+                Toast.makeText(this, "No more articles. Pull to refresh!", Toast.LENGTH_SHORT).show();
+            }
         }
     }
 
@@ -254,6 +520,9 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
 
     @Override
     public void onCardAppeared(View view, int position) {
+        if (position == layoutManager.getTopPosition()) {
+            topCardShownAt = SystemClock.elapsedRealtime();
+        }
         Log.d(TAG, "Card appeared: " + position);
     }
 
@@ -262,25 +531,50 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
         Log.d(TAG, "Card disappeared: " + position);
     }
 
+    /**
+     * Move saved articles stored under legacy hashCode IDs to canonical IDs
+     */
+    private void migrateArticleIds(FirestoreHelper firestoreHelper) {
+        if (prefsHelper.areArticleIdsMigrated()) {
+            return;
+        }
+        firestoreHelper.migrateArticleIds(new FirestoreHelper.FirestoreCallback() {
+            @Override
+            public void onSuccess(String message) {
+                prefsHelper.setArticleIdsMigrated(true);
+                Log.d(TAG, message);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                // Retried on next launch
+                Log.e(TAG, "ID migration error: " + error);
+            }
+        });
+    }
+
     /**
      * Save article to Firestore
+     * Saves are batched; the Toast is shown once per committed batch
      */
     private void saveArticle(ArticleModel article) {
-        if (article == null || article.getUrl() == null) {
+        // Saved articles are opened by URL, so one without is useless to keep
+        if (article == null || TextUtils.isEmpty(article.getUrl())) {
             Toast.makeText(this, "Cannot save article", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        firestoreHelper.saveArticle(article, new FirestoreHelper.FirestoreCallback() {
+        // Badge the article right away; the snapshot listener confirms it later
+        savedIndex.add(article);
+        writeBatcher.saveArticle(article, new FirestoreHelper.FirestoreCallback() {
             @Override
             public void onSuccess(String message) {
-                Toast.makeText(MainActivity.this, "Article saved!", Toast.LENGTH_SHORT).show();
                 Log.d(TAG, "Article saved: " + article.getTitle());
             }
 
             @Override
             public void onFailure(String error) {
-                Toast.makeText(MainActivity.this, "Failed to save: " + error, Toast.LENGTH_SHORT).show();
+                savedIndex.remove(article);
                 Log.e(TAG, "Save error: " + error);
             }
         });
@@ -301,6 +595,36 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
         cardStackView.setVisibility(show ? View.GONE : View.VISIBLE);
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        dateHandler.postDelayed(dateTicker, DateFormatter.DATE_REFRESH_INTERVAL_MS);
+    }
+
+    @Override
+    protected void onStop() {
+        dateHandler.removeCallbacks(dateTicker);
+        // Don't keep swipes buffered while the app is in the background
+        writeBatcher.flush();
+        // Per-endpoint latency and size percentiles of this session, in release builds too:
+        // the summary names endpoint paths only, never URLs, queries or the API key
+        String metrics = NetworkMetrics.getInstance().summary();
+        if (!metrics.isEmpty()) {
+            Log.i(TAG, "Network metrics:\n" + metrics);
+        }
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        imagePrefetcher.cancelAll();
+        cardStateMapper.shutdown();
+        writeBatcher.setBatchListener(null);
+        savedIndex.setOnIndexChangedListener(null);
+        savedArticleSync.stop();
+        super.onDestroy();
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_main, menu);
@@ -312,7 +636,7 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
         int id = item.getItemId();
 
         if (id == R.id.action_refresh) {
-            loadNews(currentCategory);
+            loadNews(currentCategory, true);
             return true;
         } else if (id == R.id.action_settings) {
             Intent intent = new Intent(this, SettingsActivity.class);
@@ -330,11 +654,22 @@ public class MainActivity extends AppCompatActivity implements CardStackListener
      * Logout user
      */
     private void logout() {
-        FirebaseAuth.getInstance().signOut();
-        prefsHelper.clearAll();
+        showLoading(true);
+        SessionCleaner.logout(this, this::openLogin);
+    }
+
+    private void openLogin() {
         Intent intent = new Intent(this, LoginActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
         startActivity(intent);
         finish();
     }
+
+    // Callback interface
+    private interface AppendCallback {
+        /**
+         * @param added Number of cards appended to the deck
+         */
+        void onAppended(int added);
+    }
 }
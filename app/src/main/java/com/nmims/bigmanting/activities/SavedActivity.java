@@ -1,32 +1,54 @@
 package com.nmims.bigmanting.activities;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
 import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.nmims.bigmanting.R;
 import com.nmims.bigmanting.adapters.SavedAdapter;
 import com.nmims.bigmanting.helpers.FirestoreHelper;
+import com.nmims.bigmanting.helpers.FirestoreWriteBatcher;
+import com.nmims.bigmanting.helpers.SavedArticleSync;
+import com.nmims.bigmanting.helpers.SavedSearchIndex;
 import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.DateFormatter;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * SavedActivity - Display all saved articles
  * Shows articles saved from main feed
- * Uses Firestore real-time listener for live updates
+ * Uses Firestore real-time listener for live updates of the first page;
+ * older pages are fetched with a cursor as the user scrolls
+ * Search runs against the local SavedSearchIndex, never Firestore
  */
 public class SavedActivity extends AppCompatActivity {
 
+    private static final int PAGE_SIZE = 30;
+    // Start loading the next page this many rows before the end of the list
+    private static final int LOAD_MORE_THRESHOLD = 10;
+    private static final int SEARCH_RESULT_LIMIT = 100;
+    // Wait for a pause in typing before querying the index
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
     private RecyclerView recyclerView;
     private SavedAdapter adapter;
     private ProgressBar progressBar;
@@ -34,7 +56,36 @@ public class SavedActivity extends AppCompatActivity {
     private Toolbar toolbar;
 
     private FirestoreHelper firestoreHelper;
-    private List<ArticleModel> savedArticles;
+    private ListenerRegistration savedArticlesRegistration;
+    private SavedSearchIndex searchIndex;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    // Keeps "5m ago" labels current while the screen is visible
+    private final Handler dateHandler = new Handler(Looper.getMainLooper());
+    private final Runnable dateTicker = new Runnable() {
+        @Override
+        public void run() {
+            adapter.refreshDates();
+            dateHandler.postDelayed(this, DateFormatter.DATE_REFRESH_INTERVAL_MS);
+        }
+    };
+
+    // Active search, null while showing the full list
+    private String currentQuery;
+    private final List<ArticleModel> searchResults = new ArrayList<>();
+
+    // First page, kept live by the snapshot listener
+    private List<ArticleModel> livePage = new ArrayList<>();
+    private DocumentSnapshot liveCursor;
+    private boolean liveHasMore;
+
+    // Older pages, loaded once with startAfter() cursors
+    private final List<ArticleModel> olderArticles = new ArrayList<>();
+    private DocumentSnapshot olderCursor;
+    private boolean olderStarted;
+    private boolean olderHasMore;
+    private long olderAnchorTimestamp;
+    private boolean loadingPage;
+    private int pageGeneration;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,6 +104,8 @@ public class SavedActivity extends AppCompatActivity {
 
         // Initialize Firestore helper
         firestoreHelper = new FirestoreHelper();
+        searchIndex = SavedSearchIndex.getInstance(this);
+        SavedArticleSync.getInstance(this).start(firestoreHelper);
 
         // Set up RecyclerView
         setupRecyclerView();
@@ -69,40 +122,58 @@ public class SavedActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        savedArticles = new ArrayList<>();
-        adapter = new SavedAdapter(this, savedArticles);
+        adapter = new SavedAdapter(this, new ArrayList<>());
 
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(adapter);
 
-        // Set deletion listener
-        adapter.setOnArticleDeletedListener(() -> {
-            // Check if list is empty after deletion
-            if (savedArticles.isEmpty()) {
-                showEmptyView(true);
+        // Infinite scroll: fetch the next page when nearing the end
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && currentQuery == null && layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        // Rows from older pages and search results are not live, drop them locally once deleted
+        adapter.setOnArticleDeletedListener(article -> {
+            boolean removedOlder = removeById(olderArticles, article.getArticleId());
+            boolean removedResult = removeById(searchResults, article.getArticleId());
+            if (currentQuery != null ? removedResult : removedOlder) {
+                showArticles(currentQuery != null ? searchResults : null);
             }
         });
     }
 
     /**
-     * Load saved articles from Firestore with real-time listener
+     * Load saved articles from Firestore with real-time listener on the first page
      */
     private void loadSavedArticles() {
         showLoading(true);
 
-        firestoreHelper.listenToSavedArticles(new FirestoreHelper.ArticlesCallback() {
+        savedArticlesRegistration = firestoreHelper.listenToSavedArticles(PAGE_SIZE,
+                new FirestoreHelper.PageCallback() {
             @Override
-            public void onSuccess(List<ArticleModel> articles) {
+            public void onPage(List<ArticleModel> articles, DocumentSnapshot lastDocument, boolean hasMore) {
                 showLoading(false);
 
-                if (articles != null && !articles.isEmpty()) {
-                    savedArticles.clear();
-                    savedArticles.addAll(articles);
-                    adapter.updateArticles(savedArticles);
-                    showEmptyView(false);
-                } else {
-                    showEmptyView(true);
+                livePage = articles;
+                liveCursor = lastDocument;
+                liveHasMore = hasMore;
+
+                // A newer save pushed articles off the live page that the loaded
+                // older pages do not contain; reload older pages from the new cursor
+                if ((olderStarted || loadingPage) && lastDocument != null
+                        && savedTimestampOf(lastDocument) > olderAnchorTimestamp) {
+                    resetOlderPages();
                 }
+
+                // Deletions arrive here too, so the empty state follows the listener
+                submitArticles();
             }
 
             @Override
@@ -114,6 +185,140 @@ public class SavedActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Fetch the next page of older saved articles
+     */
+    private void loadNextPage() {
+        boolean hasMore = olderStarted ? olderHasMore : liveHasMore;
+        DocumentSnapshot cursor = olderStarted ? olderCursor : liveCursor;
+        if (loadingPage || !hasMore || cursor == null) {
+            return;
+        }
+        if (!olderStarted) {
+            olderAnchorTimestamp = savedTimestampOf(cursor);
+        }
+
+        loadingPage = true;
+        int generation = pageGeneration;
+        firestoreHelper.getSavedArticlesPage(cursor, PAGE_SIZE, new FirestoreHelper.PageCallback() {
+            @Override
+            public void onPage(List<ArticleModel> articles, DocumentSnapshot lastDocument, boolean hasMore) {
+                if (generation != pageGeneration) {
+                    return; // older pages were reset while this page was loading
+                }
+                loadingPage = false;
+                olderStarted = true;
+                olderArticles.addAll(articles);
+                if (lastDocument != null) {
+                    olderCursor = lastDocument;
+                }
+                olderHasMore = hasMore;
+                submitArticles();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                if (generation != pageGeneration) {
+                    return;
+                }
+                loadingPage = false;
+                Toast.makeText(SavedActivity.this, "Error: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void resetOlderPages() {
+        pageGeneration++;
+        olderArticles.clear();
+        olderCursor = null;
+        olderStarted = false;
+        olderHasMore = false;
+        loadingPage = false;
+    }
+
+    /**
+     * Merge the live first page with the older pages and hand them to the adapter
+     * Articles pulled into the live page by a deletion are dropped from the older pages
+     */
+    private void submitArticles() {
+        if (currentQuery != null) {
+            return; // search results stay on screen until the search is closed
+        }
+        showArticles(null);
+    }
+
+    /**
+     * Show search results, or the merged saved list when results is null
+     */
+    private void showArticles(List<ArticleModel> results) {
+        if (results != null) {
+            adapter.updateArticles(results);
+            emptyView.setText(R.string.no_search_results);
+            showEmptyView(results.isEmpty());
+            return;
+        }
+
+        Set<String> liveIds = new HashSet<>();
+        for (ArticleModel article : livePage) {
+            liveIds.add(article.getArticleId());
+        }
+
+        List<ArticleModel> merged = new ArrayList<>(livePage.size() + olderArticles.size());
+        merged.addAll(livePage);
+        for (ArticleModel article : olderArticles) {
+            if (!liveIds.contains(article.getArticleId())) {
+                merged.add(article);
+            }
+        }
+
+        adapter.updateArticles(merged);
+        emptyView.setText(R.string.no_saved_articles);
+        showEmptyView(merged.isEmpty());
+    }
+
+    /**
+     * Query the local index after a short pause in typing
+     */
+    private void scheduleSearch(String query) {
+        searchHandler.removeCallbacksAndMessages(null);
+        searchHandler.postDelayed(() -> runSearch(query), SEARCH_DEBOUNCE_MS);
+    }
+
+    private void runSearch(String query) {
+        searchHandler.removeCallbacksAndMessages(null);
+        if (query.trim().isEmpty()) {
+            currentQuery = null;
+            submitArticles();
+            return;
+        }
+
+        currentQuery = query;
+        searchIndex.search(query, SEARCH_RESULT_LIMIT, (resultQuery, articles) -> {
+            // Drop results for a query the user already changed
+            if (!resultQuery.equals(currentQuery)) {
+                return;
+            }
+            searchResults.clear();
+            searchResults.addAll(articles);
+            showArticles(searchResults);
+        });
+    }
+
+    private static boolean removeById(List<ArticleModel> articles, String articleId) {
+        for (int i = 0; i < articles.size(); i++) {
+            if (articles.get(i).getArticleId().equals(articleId)) {
+                articles.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long savedTimestampOf(DocumentSnapshot doc) {
+        Long timestamp = doc.getLong("savedTimestamp");
+        return timestamp != null ? timestamp : 0;
+    }
+
     /**
      * Show/hide loading indicator
      */
@@ -129,6 +334,69 @@ public class SavedActivity extends AppCompatActivity {
         recyclerView.setVisibility(show ? View.GONE : View.VISIBLE);
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_saved, menu);
+
+        MenuItem searchItem = menu.findItem(R.id.action_search);
+        SearchView searchView = (SearchView) searchItem.getActionView();
+        searchView.setQueryHint(getString(R.string.search_saved_hint));
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                runSearch(query);
+                searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                scheduleSearch(newText);
+                return true;
+            }
+        });
+        searchItem.setOnActionExpandListener(new MenuItem.OnActionExpandListener() {
+            @Override
+            public boolean onMenuItemActionExpand(MenuItem item) {
+                return true;
+            }
+
+            @Override
+            public boolean onMenuItemActionCollapse(MenuItem item) {
+                searchHandler.removeCallbacksAndMessages(null);
+                currentQuery = null;
+                searchResults.clear();
+                submitArticles();
+                return true;
+            }
+        });
+        return true;
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        dateHandler.postDelayed(dateTicker, DateFormatter.DATE_REFRESH_INTERVAL_MS);
+    }
+
+    @Override
+    protected void onStop() {
+        dateHandler.removeCallbacks(dateTicker);
+        // Commit pending deletes rather than holding them while in the background
+        FirestoreWriteBatcher.getInstance().flush();
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        searchHandler.removeCallbacksAndMessages(null);
+        if (savedArticlesRegistration != null) {
+            savedArticlesRegistration.remove();
+        }
+        SavedArticleSync.getInstance(this).stop();
+        super.onDestroy();
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
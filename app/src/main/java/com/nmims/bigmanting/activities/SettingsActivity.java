@@ -13,8 +13,8 @@ import androidx.appcompat.app.AppCompatDelegate;
 import androidx.appcompat.widget.SwitchCompat;
 import androidx.appcompat.widget.Toolbar;
 
-import com.google.firebase.auth.FirebaseAuth;
 import com.nmims.bigmanting.R;
+import com.nmims.bigmanting.helpers.SessionCleaner;
 import com.nmims.bigmanting.utils.SharedPrefsHelper;
 
 /**
@@ -156,17 +156,14 @@ public class SettingsActivity extends AppCompatActivity {
      * Logout user and return to login screen
      */
     private void logout() {
-        // Sign out from Firebase
-        FirebaseAuth.getInstance().signOut();
-
-        // Clear preferences
-        prefsHelper.clearAll();
-
-        // Navigate to login screen
-        Intent intent = new Intent(this, LoginActivity.class);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-        startActivity(intent);
-        finish();
+        // Commit pending saves, sign out and clear per-user local history
+        SessionCleaner.logout(this, () -> {
+            // Navigate to login screen
+            Intent intent = new Intent(this, LoginActivity.class);
+            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            startActivity(intent);
+            finish();
+        });
     }
 
     @Override
@@ -10,123 +10,176 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.nmims.bigmanting.R;
+import com.nmims.bigmanting.helpers.ImageRequestPolicy;
+import com.nmims.bigmanting.helpers.SavedArticleIndex;
 import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.models.CardViewState;
+import com.nmims.bigmanting.utils.DateFormatter;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Adapter for CardStackView - displays news articles in swipeable cards
- * Handles card binding and image loading with Glide
+ * Binds precomputed CardViewStates (see CardStateMapper), so binding is only
+ * field assignments plus the Glide image request
  */
 public class CardAdapter extends RecyclerView.Adapter<CardAdapter.CardViewHolder> {
 
-    private List<ArticleModel> articles;
+    // Payload for rebinding only the saved badge, without reloading the image
+    public static final Object PAYLOAD_SAVED_STATE = new Object();
+    // Payload for rebinding only the relative date label
+    public static final Object PAYLOAD_DATE = new Object();
 
-    public CardAdapter(List<ArticleModel> articles) {
-        this.articles = articles;
-    }
+    private final List<CardViewState> states = new ArrayList<>();
+    private SavedArticleIndex savedIndex;
+    private ImageRequestPolicy imagePolicy;
+    private int imageWidth;
+    private int imageHeight;
 
     @NonNull
     @Override
     public CardViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (imagePolicy == null) {
+            imagePolicy = ImageRequestPolicy.getInstance(parent.getContext());
+        }
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_card, parent, false);
         return new CardViewHolder(view);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull CardViewHolder holder, int position) {
-        ArticleModel article = articles.get(position);
-
-        // Set title
-        holder.titleText.setText(article.getTitle() != null ? article.getTitle() : "No Title");
+    public void onBindViewHolder(@NonNull CardViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        CardViewState state = states.get(position);
+        if (payloads.contains(PAYLOAD_SAVED_STATE)) {
+            bindSavedBadge(holder, state.article);
+        }
+        if (payloads.contains(PAYLOAD_DATE)) {
+            holder.dateText.setText(DateFormatter.label(state.article, System.currentTimeMillis()));
+        }
+    }
 
-        // Set description
-        holder.descriptionText.setText(article.getDescription() != null
-                ? article.getDescription() : "No description available");
+    @Override
+    public void onBindViewHolder(@NonNull CardViewHolder holder, int position) {
+        CardViewState state = states.get(position);
 
-        // Set source
-        if (article.getSource() != null && article.getSource().getName() != null) {
-            holder.sourceText.setText(article.getSource().getName());
-        } else {
-            holder.sourceText.setText("Unknown Source");
-        }
+        // Badge articles that are already saved
+        bindSavedBadge(holder, state.article);
 
-        // Set published date
-        holder.dateText.setText(formatDate(article.getPublishedAt()));
+        holder.titleText.setText(state.title);
+        holder.descriptionText.setText(state.description);
+        holder.sourceText.setText(state.source);
+        holder.dateText.setText(DateFormatter.label(state.article, System.currentTimeMillis()));
 
-        // Set author
-        if (article.getAuthor() != null && !article.getAuthor().isEmpty()) {
-            holder.authorText.setText("By " + article.getAuthor());
+        if (state.author != null) {
+            holder.authorText.setText(state.author);
             holder.authorText.setVisibility(View.VISIBLE);
         } else {
             holder.authorText.setVisibility(View.GONE);
         }
 
-        // Load image with Glide
-        if (article.getUrlToImage() != null && !article.getUrlToImage().isEmpty()) {
-            Glide.with(holder.itemView.getContext())
-                    .load(article.getUrlToImage())
-                    .diskCacheStrategy(DiskCacheStrategy.ALL)
-                    .placeholder(R.drawable.placeholder_news)
-                    .error(R.drawable.placeholder_news)
-                    .centerCrop()
+        // Load image with Glide, at the same size ImagePrefetcher preloads it
+        if (state.imageUrl != null) {
+            imagePolicy.request(Glide.with(holder.itemView.getContext()), state.imageUrl,
+                            ImageRequestPolicy.Surface.CARD, imageWidth, imageHeight, true)
                     .into(holder.imageView);
         } else {
             holder.imageView.setImageResource(R.drawable.placeholder_news);
         }
     }
 
+    /**
+     * Rebind the date labels of all cards, so "5m ago" stays current
+     */
+    public void refreshDates() {
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_DATE);
+    }
+
     @Override
     public int getItemCount() {
-        return articles != null ? articles.size() : 0;
+        return states.size();
     }
 
     /**
-     * Update articles list
-     * @param newArticles New list of articles
+     * Replace all cards
+     * @param newStates Mapped states of the new deck
      */
-    public void updateArticles(List<ArticleModel> newArticles) {
-        this.articles = newArticles;
+    public void setStates(@NonNull List<CardViewState> newStates) {
+        states.clear();
+        states.addAll(newStates);
         notifyDataSetChanged();
     }
 
     /**
-     * Get article at position
-     * @param position Position in list
-     * @return ArticleModel
+     * Append cards behind the current ones with a range insert
+     * @param newStates Mapped states of the added articles
      */
-    public ArticleModel getArticleAt(int position) {
-        if (position >= 0 && position < articles.size()) {
-            return articles.get(position);
-        }
-        return null;
+    public void appendStates(@NonNull List<CardViewState> newStates) {
+        int start = states.size();
+        states.addAll(newStates);
+        notifyItemRangeInserted(start, newStates.size());
     }
 
     /**
-     * Format ISO 8601 date to readable format
-     * @param dateString ISO date string
-     * @return Formatted date string
+     * Index used to badge cards that are already saved
+     * @param savedIndex Saved-article index, or null to hide badges
      */
-    private String formatDate(String dateString) {
-        if (dateString == null || dateString.isEmpty()) {
-            return "Unknown date";
+    public void setSavedIndex(SavedArticleIndex savedIndex) {
+        this.savedIndex = savedIndex;
+    }
+
+    private void bindSavedBadge(CardViewHolder holder, ArticleModel article) {
+        boolean saved = savedIndex != null && savedIndex.contains(article);
+        holder.savedBadge.setVisibility(saved ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * Fix the decode size of card images so bound images match prefetched ones
+     * @param width Width in px
+     * @param height Height in px
+     */
+    public void setImageSize(int width, int height) {
+        this.imageWidth = width;
+        this.imageHeight = height;
+    }
+
+    /**
+     * Cards currently in the deck, for ImagePrefetcher
+     * @return Read-only view of the states
+     */
+    public List<CardViewState> getStates() {
+        return Collections.unmodifiableList(states);
+    }
+
+    /**
+     * Articles of the cards from a position on, e.g. the ones not swiped yet
+     * @param position First position to include
+     * @return New list, safe to hand to another thread
+     */
+    public List<ArticleModel> getArticlesFrom(int position) {
+        List<ArticleModel> articles = new ArrayList<>();
+        for (int i = Math.max(position, 0); i < states.size(); i++) {
+            articles.add(states.get(i).article);
         }
+        return articles;
+    }
 
-        try {
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
-            SimpleDateFormat outputFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-            Date date = inputFormat.parse(dateString);
-            return date != null ? outputFormat.format(date) : dateString;
-        } catch (ParseException e) {
-            return dateString;
+    /**
+     * Get article at position
+     * @param position Position in list
+     * @return ArticleModel
+     */
+    public ArticleModel getArticleAt(int position) {
+        if (position >= 0 && position < states.size()) {
+            return states.get(position).article;
         }
+        return null;
     }
 
     /**
@@ -139,6 +192,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardAdapter.CardViewHolder
         TextView sourceText;
         TextView dateText;
         TextView authorText;
+        TextView savedBadge;
 
         public CardViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -148,6 +202,7 @@ public class CardAdapter extends RecyclerView.Adapter<CardAdapter.CardViewHolder
             sourceText = itemView.findViewById(R.id.card_source);
             dateText = itemView.findViewById(R.id.card_date);
             authorText = itemView.findViewById(R.id.card_author);
+            savedBadge = itemView.findViewById(R.id.card_saved_badge);
         }
     }
 }
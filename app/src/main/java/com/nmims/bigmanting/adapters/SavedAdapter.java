@@ -12,35 +12,67 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.nmims.bigmanting.R;
 import com.nmims.bigmanting.helpers.FirestoreHelper;
+import com.nmims.bigmanting.helpers.FirestoreWriteBatcher;
+import com.nmims.bigmanting.helpers.ImageRequestPolicy;
+import com.nmims.bigmanting.helpers.SavedArticleIndex;
+import com.nmims.bigmanting.helpers.SavedSearchIndex;
 import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.DateFormatter;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Adapter for displaying saved articles in RecyclerView
  * Handles article deletion and sharing via implicit intents
+ * List updates are diffed off the main thread by articleId (AsyncListDiffer),
+ * so a single save/delete only inserts/removes a single row
  */
 public class SavedAdapter extends RecyclerView.Adapter<SavedAdapter.SavedViewHolder> {
 
-    private List<ArticleModel> articles;
+    // Payload for rebinding only the relative date label
+    public static final Object PAYLOAD_DATE = new Object();
+
+    private static final DiffUtil.ItemCallback<ArticleModel> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ArticleModel>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ArticleModel oldItem, @NonNull ArticleModel newItem) {
+                    return Objects.equals(oldItem.getArticleId(), newItem.getArticleId());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ArticleModel oldItem, @NonNull ArticleModel newItem) {
+                    // Unchanged documents keep the same instance between snapshots
+                    if (oldItem == newItem) {
+                        return true;
+                    }
+                    return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                            && Objects.equals(oldItem.getUrl(), newItem.getUrl())
+                            && Objects.equals(oldItem.getUrlToImage(), newItem.getUrlToImage())
+                            && Objects.equals(oldItem.getPublishedAt(), newItem.getPublishedAt())
+                            && Objects.equals(sourceName(oldItem), sourceName(newItem));
+                }
+            };
+
+    private final AsyncListDiffer<ArticleModel> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private final Context context;
-    private final FirestoreHelper firestoreHelper;
+    private final FirestoreWriteBatcher writeBatcher;
+    private final ImageRequestPolicy imagePolicy;
     private OnArticleDeletedListener deleteListener;
 
     public SavedAdapter(Context context, List<ArticleModel> articles) {
         this.context = context;
-        this.articles = articles;
-        this.firestoreHelper = new FirestoreHelper();
+        differ.submitList(new ArrayList<>(articles));
+        this.writeBatcher = FirestoreWriteBatcher.getInstance();
+        this.imagePolicy = ImageRequestPolicy.getInstance(context);
     }
 
     @NonNull
@@ -51,9 +83,19 @@ public class SavedAdapter extends RecyclerView.Adapter<SavedAdapter.SavedViewHol
         return new SavedViewHolder(view);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull SavedViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_DATE)) {
+            holder.dateText.setText(DateFormatter.label(differ.getCurrentList().get(position),
+                    System.currentTimeMillis()));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull SavedViewHolder holder, int position) {
-        ArticleModel article = articles.get(position);
+        ArticleModel article = differ.getCurrentList().get(position);
 
         // Set title
         holder.titleText.setText(article.getTitle() != null ? article.getTitle() : "No Title");
@@ -66,16 +108,12 @@ public class SavedAdapter extends RecyclerView.Adapter<SavedAdapter.SavedViewHol
         }
 
         // Set date
-        holder.dateText.setText(formatDate(article.getPublishedAt()));
+        holder.dateText.setText(DateFormatter.label(article, System.currentTimeMillis()));
 
-        // Load image with Glide
+        // Load image with Glide as a small RGB_565 thumbnail
         if (article.getUrlToImage() != null && !article.getUrlToImage().isEmpty()) {
-            Glide.with(context)
-                    .load(article.getUrlToImage())
-                    .diskCacheStrategy(DiskCacheStrategy.ALL)
-                    .placeholder(R.drawable.placeholder_news)
-                    .error(R.drawable.placeholder_news)
-                    .centerCrop()
+            imagePolicy.request(Glide.with(context), article.getUrlToImage(),
+                            ImageRequestPolicy.Surface.SAVED_ROW, 0, 0, false)
                     .into(holder.imageView);
         } else {
             holder.imageView.setImageResource(R.drawable.placeholder_news);
@@ -83,6 +121,10 @@ public class SavedAdapter extends RecyclerView.Adapter<SavedAdapter.SavedViewHol
 
         // Click to open article in browser
         holder.itemView.setOnClickListener(v -> {
+            // Opened articles become searchable by their body too
+            if (article.getArticleId() != null) {
+                SavedSearchIndex.getInstance(context).loadContent(article.getArticleId());
+            }
             if (article.getUrl() != null && !article.getUrl().isEmpty()) {
                 Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(article.getUrl()));
                 context.startActivity(browserIntent);
@@ -98,23 +140,30 @@ public class SavedAdapter extends RecyclerView.Adapter<SavedAdapter.SavedViewHol
         holder.deleteButton.setOnClickListener(v -> {
             int adapterPosition = holder.getAdapterPosition();
             if (adapterPosition != RecyclerView.NO_POSITION) {
-                deleteArticle(article, adapterPosition);
+                deleteArticle(differ.getCurrentList().get(adapterPosition));
             }
         });
     }
 
     @Override
     public int getItemCount() {
-        return articles != null ? articles.size() : 0;
+        return differ.getCurrentList().size();
+    }
+
+    /**
+     * Rebind the date labels of all rows, so "5m ago" stays current
+     */
+    public void refreshDates() {
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_DATE);
     }
 
     /**
      * Update articles list
+     * The diff runs on a background thread; only changed rows are rebound
      * @param newArticles New list of articles
      */
     public void updateArticles(List<ArticleModel> newArticles) {
-        this.articles = newArticles;
-        notifyDataSetChanged();
+        differ.submitList(new ArrayList<>(newArticles));
     }
 
     /**
@@ -138,27 +187,20 @@ public class SavedAdapter extends RecyclerView.Adapter<SavedAdapter.SavedViewHol
 
     /**
      * Delete article from Firestore
+     * Deletes are batched with other saved-article writes
+     * The row itself is removed by the snapshot listener's next update
      * @param article Article to delete
-     * @param position Position in adapter
      */
-    private void deleteArticle(ArticleModel article, int position) {
-        if (article.getUrl() == null) {
-            Toast.makeText(context, "Cannot delete article", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        firestoreHelper.deleteArticle(article.getUrl(), new FirestoreHelper.FirestoreCallback() {
+    private void deleteArticle(ArticleModel article) {
+        writeBatcher.deleteArticle(article, new FirestoreHelper.FirestoreCallback() {
             @Override
             public void onSuccess(String message) {
-                // Remove from local list and update UI
-                articles.remove(position);
-                notifyItemRemoved(position);
-                notifyItemRangeChanged(position, articles.size());
                 Toast.makeText(context, "Article removed", Toast.LENGTH_SHORT).show();
+                SavedArticleIndex.getInstance(context).remove(article);
 
                 // Notify listener
                 if (deleteListener != null) {
-                    deleteListener.onArticleDeleted();
+                    deleteListener.onArticleDeleted(article);
                 }
             }
 
@@ -169,24 +211,8 @@ public class SavedAdapter extends RecyclerView.Adapter<SavedAdapter.SavedViewHol
         });
     }
 
-    /**
-     * Format ISO 8601 date to readable format
-     * @param dateString ISO date string
-     * @return Formatted date string
-     */
-    private String formatDate(String dateString) {
-        if (dateString == null || dateString.isEmpty()) {
-            return "Unknown date";
-        }
-
-        try {
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
-            SimpleDateFormat outputFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-            Date date = inputFormat.parse(dateString);
-            return date != null ? outputFormat.format(date) : dateString;
-        } catch (ParseException e) {
-            return dateString;
-        }
+    private static String sourceName(ArticleModel article) {
+        return article.getSource() != null ? article.getSource().getName() : null;
     }
 
     /**
@@ -201,7 +227,7 @@ public class SavedAdapter extends RecyclerView.Adapter<SavedAdapter.SavedViewHol
      * Interface for article deletion callback
      */
     public interface OnArticleDeletedListener {
-        void onArticleDeleted();
+        void onArticleDeleted(ArticleModel article);
     }
 
     /**
@@ -0,0 +1,153 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.StringPool;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * SQLite helper for the local article store
+ * Keeps the last downloaded feed per category + country on disk
+ * so the deck can be shown instantly before the network answers
+ * Table: feeds(feed_key, category, country, articles_json, page_size, fetched_at)
+ */
+public class ArticleCacheHelper extends SQLiteOpenHelper {
+
+    private static final String TAG = "ArticleCacheHelper";
+    private static final String DATABASE_NAME = "article_cache.db";
+    private static final int DATABASE_VERSION = 2;
+
+    private static final String TABLE_FEEDS = "feeds";
+    private static final String COLUMN_FEED_KEY = "feed_key";
+    private static final String COLUMN_CATEGORY = "category";
+    private static final String COLUMN_COUNTRY = "country";
+    private static final String COLUMN_ARTICLES_JSON = "articles_json";
+    private static final String COLUMN_PAGE_SIZE = "page_size";
+    private static final String COLUMN_FETCHED_AT = "fetched_at";
+
+    private static final Type ARTICLE_LIST_TYPE = new TypeToken<List<ArticleModel>>() {}.getType();
+
+    private final Gson gson = new Gson();
+
+    public ArticleCacheHelper(@NonNull Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_FEEDS + " ("
+                + COLUMN_FEED_KEY + " TEXT PRIMARY KEY, "
+                + COLUMN_CATEGORY + " TEXT NOT NULL, "
+                + COLUMN_COUNTRY + " TEXT NOT NULL, "
+                + COLUMN_ARTICLES_JSON + " TEXT NOT NULL, "
+                + COLUMN_PAGE_SIZE + " INTEGER NOT NULL, "
+                + COLUMN_FETCHED_AT + " INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Cached feeds are disposable, simply rebuild the table
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_FEEDS);
+        onCreate(db);
+    }
+
+    /**
+     * Build the primary key for a feed
+     * @param category News category
+     * @param country Country code, empty for all countries
+     * @return Feed key
+     */
+    public static String feedKey(@NonNull String category, @Nullable String country) {
+        return category + ":" + (country != null ? country : "");
+    }
+
+    /**
+     * Read a cached feed. Must be called off the main thread.
+     * @param category News category
+     * @param country Country code, empty for all countries
+     * @return Cached feed or null if nothing is stored
+     */
+    @Nullable
+    public CachedFeed getFeed(@NonNull String category, @Nullable String country) {
+        String key = feedKey(category, country);
+        try (Cursor cursor = getReadableDatabase().query(TABLE_FEEDS,
+                new String[]{COLUMN_ARTICLES_JSON, COLUMN_PAGE_SIZE, COLUMN_FETCHED_AT},
+                COLUMN_FEED_KEY + " = ?", new String[]{key},
+                null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            List<ArticleModel> articles = gson.fromJson(cursor.getString(0), ARTICLE_LIST_TYPE);
+            if (articles == null) {
+                return null;
+            }
+            for (ArticleModel article : articles) {
+                StringPool.pool(article);
+            }
+            return new CachedFeed(articles, cursor.getInt(1), cursor.getLong(2));
+        } catch (JsonParseException e) {
+            Log.e(TAG, "Corrupt cached feed for " + key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Store a feed, replacing any previous copy. Must be called off the main thread.
+     * @param category News category
+     * @param country Country code, empty for all countries
+     * @param articles Articles to store
+     * @param pageSize Page size the articles were requested with
+     * @param fetchedAt When the articles were downloaded
+     */
+    public void putFeed(@NonNull String category, @Nullable String country,
+                        @NonNull List<ArticleModel> articles, int pageSize, long fetchedAt) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_FEED_KEY, feedKey(category, country));
+        values.put(COLUMN_CATEGORY, category);
+        values.put(COLUMN_COUNTRY, country != null ? country : "");
+        values.put(COLUMN_ARTICLES_JSON, gson.toJson(articles, ARTICLE_LIST_TYPE));
+        values.put(COLUMN_PAGE_SIZE, pageSize);
+        values.put(COLUMN_FETCHED_AT, fetchedAt);
+        getWritableDatabase().insertWithOnConflict(TABLE_FEEDS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Update only the fetch time of a feed (server returned identical articles)
+     */
+    public void touchFeed(@NonNull String category, @Nullable String country, long fetchedAt) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_FETCHED_AT, fetchedAt);
+        getWritableDatabase().update(TABLE_FEEDS, values,
+                COLUMN_FEED_KEY + " = ?", new String[]{feedKey(category, country)});
+    }
+
+    /**
+     * A feed read from disk together with its page size and download time
+     */
+    public static class CachedFeed {
+        public final List<ArticleModel> articles;
+        public final int pageSize;
+        public final long fetchedAt;
+
+        public CachedFeed(List<ArticleModel> articles, int pageSize, long fetchedAt) {
+            this.articles = articles;
+            this.pageSize = pageSize;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
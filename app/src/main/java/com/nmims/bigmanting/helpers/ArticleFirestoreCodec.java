@@ -0,0 +1,105 @@
+package com.nmims.bigmanting.helpers;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.models.SourceModel;
+import com.nmims.bigmanting.utils.StringPool;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Direct, reflection-free Firestore mapping of saved articles
+ * Reads fields straight off the DocumentSnapshot instead of copying the whole
+ * document into a Map first (getData()), pools repeated source and author
+ * strings, and can leave out the description when the screen never shows it.
+ * Writes a pre-sized map without null fields. The article body (content) is
+ * not part of the saved-article document: it goes to its own document (see
+ * encodeContent) and is loaded on demand. Older documents that still hold
+ * content inline are read the same way
+ */
+public final class ArticleFirestoreCodec {
+
+    // 8 fields at the default load factor without rehashing
+    private static final int MAP_CAPACITY = 16;
+    static final String FIELD_CONTENT = "content";
+
+    private ArticleFirestoreCodec() {
+    }
+
+    /**
+     * @param article Article to store
+     * @return Document fields for set()
+     */
+    @NonNull
+    public static Map<String, Object> encode(@NonNull ArticleModel article) {
+        Map<String, Object> map = new HashMap<>(MAP_CAPACITY);
+        putIfNotNull(map, "title", article.getTitle());
+        putIfNotNull(map, "description", article.getDescription());
+        putIfNotNull(map, "url", article.getUrl());
+        putIfNotNull(map, "urlToImage", article.getUrlToImage());
+        putIfNotNull(map, "publishedAt", article.getPublishedAt());
+        putIfNotNull(map, "author", article.getAuthor());
+        map.put("savedTimestamp", article.getSavedTimestamp());
+
+        SourceModel source = article.getSource();
+        if (source != null) {
+            Map<String, Object> sourceMap = new HashMap<>(4);
+            sourceMap.put("id", source.getId());
+            sourceMap.put("name", source.getName());
+            map.put("source", sourceMap);
+        }
+        return map;
+    }
+
+    /**
+     * @param article Article to store
+     * @return Fields of the separate content document, or null if there is no content
+     */
+    @Nullable
+    public static Map<String, Object> encodeContent(@NonNull ArticleModel article) {
+        if (article.getContent() == null || article.getContent().isEmpty()) {
+            return null;
+        }
+        Map<String, Object> map = new HashMap<>(2);
+        map.put(FIELD_CONTENT, article.getContent());
+        return map;
+    }
+
+    /**
+     * @param doc Saved-article document
+     * @param full False to skip description and any inline content (e.g. for list screens)
+     * @return Article with its articleId set to the document ID
+     */
+    @NonNull
+    public static ArticleModel decode(@NonNull DocumentSnapshot doc, boolean full) {
+        ArticleModel article = new ArticleModel();
+        article.setArticleId(doc.getId());
+        article.setTitle(doc.getString("title"));
+        if (full) {
+            article.setDescription(doc.getString("description"));
+            // Only documents written before content moved out still carry it
+            article.setContent(doc.getString(FIELD_CONTENT));
+        }
+        article.setUrl(doc.getString("url"));
+        article.setUrlToImage(doc.getString("urlToImage"));
+        article.setPublishedAt(doc.getString("publishedAt"));
+        article.setAuthor(StringPool.intern(doc.getString("author")));
+
+        Long savedTimestamp = doc.getLong("savedTimestamp");
+        if (savedTimestamp != null) {
+            article.setSavedTimestamp(savedTimestamp);
+        }
+        article.setSource(StringPool.source(doc.getString("source.id"), doc.getString("source.name")));
+        return article;
+    }
+
+    private static void putIfNotNull(Map<String, Object> map, String key, Object value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.nmims.bigmanting.models.ArticleModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device personalized ranking of the card deck
+ * An online logistic regression over hashed features (source, category,
+ * title words) learns from every swipe: right = 1, left = 0
+ * Features are hashed straight from the strings' chars into a fixed float[]
+ * of weights, so scoring allocates nothing per article and 100 articles
+ * rank in well under a millisecond. With no history every score is 0 and the deck
+ * keeps NewsAPI order. Weights are persisted to a file in filesDir
+ */
+public class ArticleRanker {
+
+    private static final String TAG = "ArticleRanker";
+    private static final String FILE_NAME = "ranker_weights.bin";
+    private static final int FILE_VERSION = 1;
+
+    // 2^14 weights = 64 KB; collisions are rare for a single user's vocabulary
+    private static final int FEATURE_BITS = 14;
+    private static final int FEATURE_MASK = (1 << FEATURE_BITS) - 1;
+    private static final int MAX_FEATURES = 64;
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    private static final float LEARNING_RATE = 0.05f;
+    private static final float L2_PENALTY = 0.0005f;
+    private static final long PERSIST_DELAY_MS = 5000;
+
+    // Feature namespaces, so "apple" as a source and as a title word differ
+    private static final int NS_BIAS = 0x62696173;
+    private static final int NS_SOURCE = 0x73726320;
+    private static final int NS_CATEGORY = 0x63617420;
+    private static final int NS_TITLE = 0x746f6b20;
+
+    private static ArticleRanker instance;
+
+    private final File file;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable persistRunnable = this::persist;
+
+    // Guarded by this
+    private final float[] weights = new float[1 << FEATURE_BITS];
+    private final int[] featureBuffer = new int[MAX_FEATURES];
+    private boolean trained;
+
+    private ArticleRanker(Context context) {
+        this.file = new File(context.getFilesDir(), FILE_NAME);
+        diskExecutor.execute(this::load);
+    }
+
+    /**
+     * Get singleton instance of ArticleRanker
+     * @param context Any context
+     * @return ArticleRanker instance
+     */
+    public static synchronized ArticleRanker getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new ArticleRanker(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Order articles by predicted interest, highest first
+     * Ties keep their incoming order
+     * @param articles Articles to rank
+     * @param category Category the articles were fetched for
+     * @return New list in ranked order
+     */
+    @NonNull
+    public synchronized List<ArticleModel> rank(@NonNull List<ArticleModel> articles, @NonNull String category) {
+        int n = articles.size();
+        if (!trained || n < 2) {
+            return new ArrayList<>(articles);
+        }
+
+        float[] scores = new float[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            scores[i] = score(featureBuffer, extractFeatures(articles.get(i), category, featureBuffer));
+            order[i] = i;
+        }
+
+        // Stable insertion sort on indices; a feed holds at most 50-100 cards
+        for (int i = 1; i < n; i++) {
+            int index = order[i];
+            int j = i - 1;
+            while (j >= 0 && scores[order[j]] < scores[index]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+
+        List<ArticleModel> ranked = new ArrayList<>(n);
+        for (int index : order) {
+            ranked.add(articles.get(index));
+        }
+        return ranked;
+    }
+
+    /**
+     * Learn from one swipe with a single SGD step
+     * @param article Swiped article
+     * @param category Category the article was shown under
+     * @param saved True for a right swipe, false for a left swipe
+     */
+    public void train(@NonNull ArticleModel article, @NonNull String category, boolean saved) {
+        synchronized (this) {
+            int count = extractFeatures(article, category, featureBuffer);
+            float prediction = sigmoid(score(featureBuffer, count));
+            float gradient = (saved ? 1f : 0f) - prediction;
+            for (int i = 0; i < count; i++) {
+                int feature = featureBuffer[i];
+                weights[feature] += LEARNING_RATE * (gradient - L2_PENALTY * weights[feature]);
+            }
+            trained = true;
+        }
+        mainHandler.removeCallbacks(persistRunnable);
+        mainHandler.postDelayed(persistRunnable, PERSIST_DELAY_MS);
+    }
+
+    /**
+     * Forget everything learned and delete the stored weights (logout)
+     */
+    public void clear() {
+        mainHandler.removeCallbacks(persistRunnable);
+        synchronized (this) {
+            Arrays.fill(weights, 0f);
+            trained = false;
+        }
+        diskExecutor.execute(() -> {
+            if (file.exists() && !file.delete()) {
+                Log.e(TAG, "Could not delete " + file);
+            }
+        });
+    }
+
+    private float score(int[] features, int count) {
+        float sum = 0f;
+        for (int i = 0; i < count; i++) {
+            sum += weights[features[i]];
+        }
+        return sum;
+    }
+
+    /**
+     * Write the hashed feature indices of an article into a buffer
+     * @return Number of features written
+     */
+    private static int extractFeatures(ArticleModel article, String category, int[] out) {
+        int count = 0;
+        out[count++] = hash(NS_BIAS, "", 0, 0);
+        out[count++] = hash(NS_CATEGORY, category, 0, category.length());
+
+        if (article.getSource() != null && article.getSource().getName() != null) {
+            String source = article.getSource().getName();
+            out[count++] = hash(NS_SOURCE, source, 0, source.length());
+        }
+
+        String title = article.getTitle();
+        if (title != null) {
+            int length = title.length();
+            int start = -1;
+            for (int i = 0; i <= length && count < out.length; i++) {
+                boolean wordChar = i < length && Character.isLetterOrDigit(title.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    if (i - start >= MIN_TOKEN_LENGTH) {
+                        out[count++] = hash(NS_TITLE, title, start, i);
+                    }
+                    start = -1;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * FNV-1a over the lower-cased chars of value[start, end), seeded by namespace
+     */
+    private static int hash(int namespace, String value, int start, int end) {
+        int hash = 0x811c9dc5 ^ namespace;
+        for (int i = start; i < end; i++) {
+            hash ^= Character.toLowerCase(value.charAt(i));
+            hash *= 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        return hash & FEATURE_MASK;
+    }
+
+    private static float sigmoid(float x) {
+        return (float) (1.0 / (1.0 + Math.exp(-x)));
+    }
+
+    private void persist() {
+        float[] snapshot;
+        synchronized (this) {
+            snapshot = weights.clone();
+        }
+        diskExecutor.execute(() -> {
+            File temp = new File(file.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(FILE_VERSION);
+                out.writeInt(snapshot.length);
+                for (float weight : snapshot) {
+                    out.writeFloat(weight);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing weights", e);
+                return;
+            }
+            if (!temp.renameTo(file)) {
+                Log.e(TAG, "Could not replace " + file);
+            }
+        });
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION || in.readInt() != weights.length) {
+                return;
+            }
+            float[] stored = new float[weights.length];
+            for (int i = 0; i < stored.length; i++) {
+                stored[i] = in.readFloat();
+            }
+            synchronized (this) {
+                // Swipes learned before loading finished are added on top
+                for (int i = 0; i < stored.length; i++) {
+                    weights[i] += stored[i];
+                }
+                trained = true;
+            }
+            Log.d(TAG, "Loaded ranker weights");
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading weights", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.nmims.bigmanting.helpers;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.models.CardViewState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Turns incoming feeds into cards on a background thread
+ * Merging (FeedMerger), ranking (ArticleRanker) and mapping to CardViewStates
+ * run as one step, so the main thread only applies the result
+ * Results are delivered on the main thread in submission order, so a deck
+ * replacement followed by appends is applied in the same order
+ */
+public class CardStateMapper {
+
+    private final FeedMerger feedMerger;
+    private final ArticleRanker ranker;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * @param feedMerger Merge stage dropping seen and duplicate stories
+     * @param ranker Ranker ordering the accepted stories
+     */
+    public CardStateMapper(@NonNull FeedMerger feedMerger, @NonNull ArticleRanker ranker) {
+        this.feedMerger = feedMerger;
+        this.ranker = ranker;
+    }
+
+    /**
+     * Merge, rank and map incoming articles off the main thread
+     * @param deck Articles still waiting in the deck; the list must not be modified afterwards
+     * @param incoming Articles from the repository; the list must not be modified afterwards
+     * @param category Category the deck is ranked for
+     * @param callback Callback invoked on the main thread with the cards to add
+     */
+    public void merge(@NonNull List<ArticleModel> deck, @NonNull List<ArticleModel> incoming,
+                      @NonNull String category, @NonNull MapCallback callback) {
+        executor.execute(() -> {
+            List<ArticleModel> ranked = ranker.rank(feedMerger.merge(deck, incoming), category);
+            long now = System.currentTimeMillis();
+            List<CardViewState> states = new ArrayList<>(ranked.size());
+            for (ArticleModel article : ranked) {
+                states.add(CardViewState.from(article, now));
+            }
+            mainHandler.post(() -> callback.onMapped(states));
+        });
+    }
+
+    /**
+     * Stop the background thread; pending results are dropped
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+
+    // Callback interface
+    public interface MapCallback {
+        /**
+         * @param states Cards of the accepted articles, in deck order
+         */
+        void onMapped(List<CardViewState> states);
+    }
+}
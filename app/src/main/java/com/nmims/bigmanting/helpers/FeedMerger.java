@@ -0,0 +1,136 @@
+package com.nmims.bigmanting.helpers;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.ArticleIdentity;
+import com.nmims.bigmanting.utils.LongHashSet;
+import com.nmims.bigmanting.utils.SimHash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merge stage between NewsRepository and the card deck
+ * Drops incoming articles that are already in the deck, were already swiped
+ * (the "seen" filter), or repeat another incoming article. Duplicates are
+ * matched by canonical URL (ArticleIdentity) and by near-identical
+ * title + description (SimHash), which catches the same story returned
+ * under several categories or republished by another outlet
+ * Swipes from this session are kept in a bounded ring (oldest forgotten
+ * first) for near-duplicate checks; swipes from earlier sessions are
+ * matched by URL through the persisted SwipeLog
+ * Thread-safe: merges run in the background while swipes are marked on the main thread
+ */
+public class FeedMerger {
+
+    // Fingerprints at most this many bits apart are treated as the same story
+    // Title + description is short, so lightly edited copies land 4-6 bits
+    // apart while different stories on the same topic stay above ~15
+    private static final int NEAR_DUPLICATE_DISTANCE = 6;
+
+    private final SwipeLog swipeLog;
+    private final int seenCapacity;
+    private final long[] seenKeys;
+    private final long[] seenFingerprints;
+    private final LongHashSet seenKeySet;
+    private int seenCount;
+    private int seenNext;
+
+    /**
+     * @param swipeLog Persisted swipe history, or null to only filter this session
+     * @param seenCapacity Number of swiped articles remembered for near-duplicate checks
+     */
+    public FeedMerger(@Nullable SwipeLog swipeLog, int seenCapacity) {
+        this.swipeLog = swipeLog;
+        this.seenCapacity = seenCapacity;
+        this.seenKeys = new long[seenCapacity];
+        this.seenFingerprints = new long[seenCapacity];
+        this.seenKeySet = new LongHashSet(seenCapacity);
+    }
+
+    /**
+     * Select the incoming articles worth adding to the deck
+     * @param deck Articles still waiting in the deck
+     * @param incoming Articles from the repository, in display order
+     * @return New, unseen, unique articles in their incoming order
+     */
+    @NonNull
+    public synchronized List<ArticleModel> merge(@NonNull List<ArticleModel> deck, @NonNull List<ArticleModel> incoming) {
+        int capacity = deck.size() + incoming.size();
+        LongHashSet keys = new LongHashSet(capacity);
+        long[] fingerprints = new long[capacity];
+        int fingerprintCount = 0;
+
+        for (ArticleModel article : deck) {
+            keys.add(ArticleIdentity.key(article));
+            fingerprints[fingerprintCount++] = fingerprint(article);
+        }
+
+        List<ArticleModel> accepted = new ArrayList<>();
+        for (ArticleModel article : incoming) {
+            long key = ArticleIdentity.key(article);
+            if (keys.contains(key) || isSeenKey(key)) {
+                continue;
+            }
+            long fingerprint = fingerprint(article);
+            if (fingerprint != 0 && (isNearDuplicate(fingerprint, fingerprints, fingerprintCount)
+                    || isNearDuplicate(fingerprint, seenFingerprints, seenCount))) {
+                continue;
+            }
+            keys.add(key);
+            fingerprints[fingerprintCount++] = fingerprint;
+            accepted.add(article);
+        }
+        return accepted;
+    }
+
+    /**
+     * Remember a swiped article so it, and near copies of it, are not shown again
+     */
+    public synchronized void markSeen(@NonNull ArticleModel article) {
+        long key = ArticleIdentity.key(article);
+        if (!seenKeySet.add(key)) {
+            return;
+        }
+        if (seenCount == seenCapacity) {
+            seenKeySet.remove(seenKeys[seenNext]);
+        } else {
+            seenCount++;
+        }
+        seenKeys[seenNext] = key;
+        seenFingerprints[seenNext] = fingerprint(article);
+        seenNext = (seenNext + 1) % seenCapacity;
+    }
+
+    private boolean isSeenKey(long key) {
+        return seenKeySet.contains(key) || (swipeLog != null && swipeLog.hasSwiped(key));
+    }
+
+    private static boolean isNearDuplicate(long fingerprint, long[] fingerprints, int count) {
+        for (int i = 0; i < count; i++) {
+            if (fingerprints[i] != 0
+                    && SimHash.distance(fingerprint, fingerprints[i]) <= NEAR_DUPLICATE_DISTANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * SimHash of title + description, without the " - Source" suffix NewsAPI
+     * appends to titles (it differs between outlets carrying the same story)
+     */
+    private static long fingerprint(ArticleModel article) {
+        String title = article.getTitle() != null ? article.getTitle() : "";
+        if (article.getSource() != null && article.getSource().getName() != null) {
+            String suffix = " - " + article.getSource().getName();
+            if (title.endsWith(suffix)) {
+                title = title.substring(0, title.length() - suffix.length());
+            }
+        }
+        String description = article.getDescription() != null ? article.getDescription() : "";
+        return SimHash.fingerprint(title + " " + description);
+    }
+}
@@ -0,0 +1,222 @@
+package com.nmims.bigmanting.helpers;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nmims.bigmanting.models.ArticleModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads further pages of the current category as the user nears the end of the deck
+ * The first page is the feed from NewsRepository.loadFeed, whose page size
+ * is reused for every later page; once fewer than
+ * prefetchDistance cards are left, page 2, 3, ... is fetched in the background
+ * and handed to the listener to append. Only one page is in flight at a time
+ * Every source of the feed (country and worldwide headlines) is paged on its
+ * own: a short page, or NewsAPI refusing results past the plan's limit, ends
+ * that source until the next reset(), and paging stops once all have ended
+ * Other failures are retried on a later position change, backing off exponentially
+ * Page loads belong to the screen's RequestScope, so a category change or
+ * onDestroy cancels them
+ * Must be used from the main thread
+ */
+public class FeedPager {
+
+    private static final String TAG = "FeedPager";
+    // Wait before retrying a failed page, doubled per consecutive failure
+    private static final long RETRY_BASE_MS = 2000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    private final NewsRepository repository;
+    private final RequestScope scope;
+    private final int prefetchDistance;
+
+    private PageListener listener;
+    private String category;
+    private String country;
+    private String apiKey;
+    private int generation;
+    private int pageSize;
+    // Next page per source, 0 once the source has no more
+    private int[] nextPages = new int[0];
+    private boolean loading;
+    // Consecutive failed pages, and when the next attempt is allowed (elapsedRealtime)
+    private int failures;
+    private long retryAt;
+
+    /**
+     * @param repository Source of pages
+     * @param scope Request scope of the screen showing the deck
+     * @param prefetchDistance Cards left in the deck at which the next page is requested
+     */
+    public FeedPager(@NonNull NewsRepository repository, @NonNull RequestScope scope, int prefetchDistance) {
+        this.repository = repository;
+        this.scope = scope;
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    public void setPageListener(@Nullable PageListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Start paging a new feed; call after RequestScope.begin() for the feed load
+     * @param category News category
+     * @param country Country code, null for all countries
+     * @param apiKey NewsAPI key
+     * @param generation Generation returned by RequestScope.begin()
+     */
+    public void reset(@NonNull String category, @Nullable String country, @NonNull String apiKey,
+                      int generation) {
+        this.category = category;
+        this.country = country;
+        this.apiKey = apiKey;
+        this.generation = generation;
+        // Unknown until the first page arrives, see setPageSize()
+        this.pageSize = 0;
+        this.nextPages = new int[NewsRepository.sourceCount(country)];
+        Arrays.fill(nextPages, 2);
+        this.loading = false;
+        this.failures = 0;
+        this.retryAt = 0;
+    }
+
+    /**
+     * Page size of the first page, as delivered with the feed
+     * A size that differs from an earlier one (e.g. cached vs revalidated feed)
+     * restarts at page 2, since later offsets follow the newest first page;
+     * articles seen twice are dropped when merged into the deck
+     * @param pageSize Page size from NewsRepository.FeedCallback.onArticles
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize != this.pageSize) {
+            this.pageSize = pageSize;
+            for (int source = 0; source < nextPages.length; source++) {
+                if (nextPages[source] > 0) {
+                    nextPages[source] = 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Report the deck position; requests the next page when the end is near
+     * @param topPosition CardStackLayoutManager.getTopPosition()
+     * @param deckSize Number of cards in the deck
+     */
+    public void onPositionChanged(int topPosition, int deckSize) {
+        if (deckSize - topPosition <= prefetchDistance) {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * Request the next page regardless of the deck position, e.g. when the
+     * last page added no cards after merging
+     */
+    public void loadNextPage() {
+        if (loading || isExhausted() || pageSize <= 0 || SystemClock.elapsedRealtime() < retryAt) {
+            return;
+        }
+
+        loading = true;
+        int[] pages = nextPages.clone();
+        int pageGeneration = generation;
+        int size = pageSize;
+        Log.d(TAG, "Loading pages " + Arrays.toString(pages) + " of " + category);
+        scope.track(repository.loadPage(category, country, apiKey, pages, size, results -> {
+            if (scope.isCurrent(pageGeneration)) {
+                loading = false;
+                onResults(pages, size, results);
+            }
+        }));
+    }
+
+    private void onResults(int[] pages, int size, List<FetchOrchestrator.CallResult> results) {
+        List<FetchOrchestrator.CallResult> loaded = new ArrayList<>();
+        String error = null;
+        for (int source = 0; source < results.size(); source++) {
+            FetchOrchestrator.CallResult result = results.get(source);
+            if (result == null) {
+                continue;
+            }
+            // Positions only advance if the page size did not change meanwhile
+            boolean current = size == pageSize;
+            if (result.articles != null) {
+                loaded.add(result);
+                // A short page is the last one NewsAPI has for this source
+                if (current) {
+                    nextPages[source] = result.articles.size() < size ? 0 : pages[source] + 1;
+                }
+            } else if (result.resultLimitReached) {
+                Log.d(TAG, "Result limit reached at page " + pages[source] + " of source " + source);
+                if (current) {
+                    nextPages[source] = 0;
+                }
+            } else if (error == null) {
+                error = result.error;
+            }
+        }
+
+        if (!loaded.isEmpty()) {
+            failures = 0;
+            retryAt = 0;
+            if (listener != null) {
+                listener.onPage(FetchOrchestrator.merge(loaded));
+            }
+        } else if (error != null) {
+            // Transient errors were already retried by FetchOrchestrator; wait before the next try
+            failures++;
+            long delay = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(failures - 1, 5));
+            retryAt = SystemClock.elapsedRealtime() + delay;
+            Log.e(TAG, "Page failed, retrying in " + delay + " ms: " + error);
+            if (listener != null) {
+                listener.onPageFailed(error);
+            }
+        }
+        if (isExhausted() && listener != null) {
+            listener.onExhausted();
+        }
+    }
+
+    private boolean isExhausted() {
+        for (int page : nextPages) {
+            if (page > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return True while a page is being fetched
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    // Listener interface
+    public interface PageListener {
+        /**
+         * @param articles Articles of the next page, to append behind the deck
+         */
+        void onPage(List<ArticleModel> articles);
+
+        /**
+         * A page failed; it is retried once the deck position changes again
+         * @param error Error message
+         */
+        void onPageFailed(String error);
+
+        /**
+         * No further pages will be loaded for this feed
+         */
+        void onExhausted();
+    }
+}
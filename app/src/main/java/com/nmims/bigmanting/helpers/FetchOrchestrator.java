@@ -0,0 +1,378 @@
+package com.nmims.bigmanting.helpers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.models.NewsResponse;
+import com.nmims.bigmanting.utils.ArticleIdentity;
+import com.nmims.bigmanting.utils.LongHashSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Runs NewsAPI requests for the UI
+ * - Fan-out: one fetch can issue several endpoint calls in parallel; their
+ *   articles are merged in call order with duplicates removed
+ * - Coalescing: a call for a URL that is already in flight is not sent again,
+ *   the new fetch just waits for the existing response
+ * - Superseding: each fetch has a tag (e.g. "feed"); starting a fetch cancels
+ *   the previous one with the same tag, and a network call is cancelled once
+ *   no fetch is waiting for it any more
+ * - Retrying: transient failures are resent after RetryPolicy.retryDelay(),
+ *   posted to the main thread so no OkHttp thread waits out the backoff;
+ *   a waiting retry is dropped once no fetch needs the call
+ * Must be used from the main thread, where Retrofit delivers responses
+ */
+public class FetchOrchestrator {
+
+    private static final String TAG = "FetchOrchestrator";
+    private static final String RESULT_LIMIT_CODE = "maximumResultsReached";
+
+    // Network calls in flight, keyed by method + URL
+    private final Map<String, InFlightCall> inFlight = new HashMap<>();
+    // Latest fetch per tag
+    private final Map<String, Fetch> activeFetches = new HashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Start a fetch, superseding the previous fetch with the same tag
+     * @param tag Scope of the fetch; a newer fetch with this tag cancels this one
+     * @param calls Unexecuted calls to run in parallel, in merge order
+     * @param callback Callback invoked once all calls finished, unless cancelled
+     * @return Handle cancelling just this fetch
+     */
+    @NonNull
+    public RequestScope.Request fetch(@NonNull String tag, @NonNull List<Call<NewsResponse>> calls,
+                      @NonNull FetchCallback callback) {
+        return fetchEach(tag, calls, results -> {
+            int failed = 0;
+            String firstError = null;
+            for (CallResult result : results) {
+                if (result.articles == null) {
+                    failed++;
+                    if (firstError == null) {
+                        firstError = result.error;
+                    }
+                }
+            }
+            if (failed > 0 && failed == results.size()) {
+                callback.onFailure(firstError);
+            } else {
+                callback.onSuccess(merge(results), failed);
+            }
+        });
+    }
+
+    /**
+     * Start a fetch that reports the outcome of each call instead of a merged feed
+     * Same superseding and coalescing as {@link #fetch}
+     * @param tag Scope of the fetch; a newer fetch with this tag cancels this one
+     * @param calls Unexecuted calls to run in parallel
+     * @param callback Callback invoked once all calls finished, unless cancelled
+     * @return Handle cancelling just this fetch
+     */
+    @NonNull
+    public RequestScope.Request fetchEach(@NonNull String tag, @NonNull List<Call<NewsResponse>> calls,
+                                          @NonNull CallsCallback callback) {
+        Fetch previous = activeFetches.remove(tag);
+
+        Fetch fetch = new Fetch(tag, calls.size(), callback);
+        activeFetches.put(tag, fetch);
+
+        for (int i = 0; i < calls.size(); i++) {
+            Call<NewsResponse> call = calls.get(i);
+            String key = call.request().method() + " " + call.request().url();
+
+            InFlightCall shared = inFlight.get(key);
+            if (shared == null) {
+                shared = new InFlightCall(key, call);
+                inFlight.put(key, shared);
+                shared.call.enqueue(shared);
+            } else {
+                Log.d(TAG, "Coalesced request for " + call.request().url().encodedPath());
+            }
+            shared.waiting.add(new Part(fetch, i));
+            fetch.calls.add(shared);
+        }
+
+        // Cancel the superseded fetch only now, so calls it shares with this one keep running
+        if (previous != null) {
+            cancelFetch(previous);
+        }
+        if (calls.isEmpty()) {
+            fetch.finish();
+        }
+        return fetch;
+    }
+
+    /**
+     * Merge the articles of successful calls in call order, keeping the first copy of each
+     */
+    @NonNull
+    public static List<ArticleModel> merge(@NonNull List<CallResult> results) {
+        LongHashSet keys = new LongHashSet();
+        List<ArticleModel> merged = new ArrayList<>();
+        for (CallResult result : results) {
+            if (result.articles == null) {
+                continue;
+            }
+            for (ArticleModel article : result.articles) {
+                if (keys.add(ArticleIdentity.key(article))) {
+                    merged.add(article);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * NewsAPI refuses results past the plan's limit with HTTP 426 / maximumResultsReached
+     */
+    static boolean isResultLimit(Response<?> response) {
+        if (response.code() == 426) {
+            return true;
+        }
+        try (ResponseBody errorBody = response.errorBody()) {
+            // Retrofit buffers error bodies, so this does not touch the network
+            return errorBody != null && errorBody.string().contains(RESULT_LIMIT_CODE);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Cancel the active fetch with a tag; its callback will not be invoked
+     */
+    public void cancel(@NonNull String tag) {
+        Fetch fetch = activeFetches.remove(tag);
+        if (fetch != null) {
+            cancelFetch(fetch);
+        }
+    }
+
+    private void cancelFetch(Fetch fetch) {
+        fetch.cancelled = true;
+        for (InFlightCall shared : fetch.calls) {
+            shared.removeFetch(fetch);
+            if (shared.waiting.isEmpty() && inFlight.get(shared.key) == shared) {
+                inFlight.remove(shared.key);
+                mainHandler.removeCallbacks(shared);
+                shared.call.cancel();
+                Log.d(TAG, "Cancelled superseded request: " + shared.call.request().url().encodedPath());
+            }
+        }
+    }
+
+    /**
+     * One network call shared by every fetch that asked for the same URL
+     */
+    private class InFlightCall implements Callback<NewsResponse>, Runnable {
+        final String key;
+        final List<Part> waiting = new ArrayList<>();
+        // Current attempt; replaced by a clone for each retry
+        Call<NewsResponse> call;
+        int attempt;
+
+        InFlightCall(String key, Call<NewsResponse> call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        void removeFetch(Fetch fetch) {
+            for (int i = waiting.size() - 1; i >= 0; i--) {
+                if (waiting.get(i).fetch == fetch) {
+                    waiting.remove(i);
+                }
+            }
+        }
+
+        /**
+         * Resend the call after a backoff
+         * @return True if a retry was scheduled
+         */
+        boolean retry(@Nullable okhttp3.Response failed) {
+            long delay = RetryPolicy.retryDelay(attempt, failed);
+            if (delay < 0) {
+                return false;
+            }
+            Log.d(TAG, "Retrying " + call.request().url().encodedPath() + " in " + delay + " ms");
+            mainHandler.postDelayed(this, delay);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            if (waiting.isEmpty()) {
+                return;
+            }
+            attempt++;
+            call = call.clone();
+            call.enqueue(this);
+        }
+
+        @Override
+        public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+            if (!response.isSuccessful() && retry(response.raw())) {
+                return;
+            }
+            if (!response.isSuccessful() || response.body() == null) {
+                Log.e(TAG, "API Error: " + response.code() + " - " + response.message());
+                if (!response.isSuccessful() && isResultLimit(response)) {
+                    deliver(CallResult.failure("No more results available", true));
+                } else {
+                    deliver(CallResult.failure(response.code() == 429
+                            ? "NewsAPI rate limit reached, try again later"
+                            : "Failed to load news: " + response.message(), false));
+                }
+                return;
+            }
+            List<ArticleModel> articles = response.body().getArticles();
+            deliver(CallResult.success(articles != null ? articles : new ArrayList<>()));
+        }
+
+        @Override
+        public void onFailure(Call<NewsResponse> call, Throwable t) {
+            if (call.isCanceled()) {
+                return;
+            }
+            // An open circuit fails fast on purpose, retrying would only wait it out
+            if (!(t instanceof RetryPolicy.CircuitOpenException) && retry(null)) {
+                return;
+            }
+            Log.e(TAG, "Network error", t);
+            deliver(CallResult.failure("Network error: " + t.getMessage(), false));
+        }
+
+        private void deliver(CallResult result) {
+            if (inFlight.get(key) == this) {
+                inFlight.remove(key);
+            }
+            for (Part part : new ArrayList<>(waiting)) {
+                part.fetch.onPart(part.index, result);
+            }
+            waiting.clear();
+        }
+    }
+
+    /**
+     * Position of one call within a fetch
+     */
+    private static class Part {
+        final Fetch fetch;
+        final int index;
+
+        Part(Fetch fetch, int index) {
+            this.fetch = fetch;
+            this.index = index;
+        }
+    }
+
+    /**
+     * A fan-out fetch collecting one result per call
+     */
+    private class Fetch implements RequestScope.Request {
+        final String tag;
+        final CallsCallback callback;
+        final List<InFlightCall> calls = new ArrayList<>();
+        final List<CallResult> results;
+        int remaining;
+        boolean cancelled;
+
+        Fetch(String tag, int size, CallsCallback callback) {
+            this.tag = tag;
+            this.callback = callback;
+            this.remaining = size;
+            this.results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                results.add(null);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            if (activeFetches.get(tag) == this) {
+                activeFetches.remove(tag);
+            }
+            cancelFetch(this);
+        }
+
+        void onPart(int index, CallResult result) {
+            if (cancelled) {
+                return;
+            }
+            results.set(index, result);
+            if (--remaining == 0) {
+                finish();
+            }
+        }
+
+        void finish() {
+            if (activeFetches.get(tag) == this) {
+                activeFetches.remove(tag);
+            }
+            callback.onComplete(results);
+        }
+    }
+
+    /**
+     * Outcome of one call of a fetch
+     */
+    public static class CallResult {
+        // Null if the call failed
+        @Nullable
+        public final List<ArticleModel> articles;
+        @Nullable
+        public final String error;
+        // The call failed because NewsAPI has no further results for this query
+        public final boolean resultLimitReached;
+
+        private CallResult(@Nullable List<ArticleModel> articles, @Nullable String error,
+                           boolean resultLimitReached) {
+            this.articles = articles;
+            this.error = error;
+            this.resultLimitReached = resultLimitReached;
+        }
+
+        static CallResult success(@NonNull List<ArticleModel> articles) {
+            return new CallResult(articles, null, false);
+        }
+
+        static CallResult failure(@NonNull String error, boolean resultLimitReached) {
+            return new CallResult(null, error, resultLimitReached);
+        }
+    }
+
+    // Callback interfaces
+    public interface CallsCallback {
+        /**
+         * @param results Outcome of each call, in call order
+         */
+        void onComplete(List<CallResult> results);
+    }
+
+    public interface FetchCallback {
+        /**
+         * @param articles Merged articles of all successful calls
+         * @param failedCalls Number of calls that failed
+         */
+        void onSuccess(List<ArticleModel> articles, int failedCalls);
+        void onFailure(String error);
+    }
+}
@@ -3,16 +3,29 @@ package com.nmims.bigmanting.helpers;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
 import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.ArticleIdentity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * Helper class for Firebase Firestore operations
@@ -24,6 +37,9 @@ public class FirestoreHelper {
     private static final String TAG = "FirestoreHelper";
     private static final String COLLECTION_USERS = "users";
     private static final String COLLECTION_SAVED_ARTICLES = "saved_articles";
+    // Article bodies, one document per saved article with the same ID
+    private static final String COLLECTION_SAVED_CONTENT = "saved_article_content";
+    private static final int MAX_BATCH_OPERATIONS = 500;
 
     private final FirebaseFirestore db;
     private final FirebaseAuth auth;
@@ -34,177 +50,330 @@ public class FirestoreHelper {
     }
 
     /**
-     * Save an article to Firestore for the current user
-     * @param article Article to save
-     * @param callback Callback with success/failure
+     * Get one page of saved articles, most recent first (no live updates)
+     * @param startAfter Last document of the previous page, null for the first page
+     * @param pageSize Maximum number of articles in the page
+     * @param callback Callback with the page and the cursor for the next one
      */
-    public void saveArticle(@NonNull ArticleModel article, @NonNull FirestoreCallback callback) {
+    public void getSavedArticlesPage(@Nullable DocumentSnapshot startAfter, int pageSize,
+                                     @NonNull PageCallback callback) {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) {
             callback.onFailure("User not authenticated");
             return;
         }
 
-        // Set saved timestamp
-        article.setSavedTimestamp(System.currentTimeMillis());
-
-        // Generate unique article ID based on URL
-        String articleId = generateArticleId(article.getUrl());
-        article.setArticleId(articleId);
+        Query query = savedArticlesQuery(user);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
 
-        // Save to Firestore: users/{uid}/saved_articles/{articleId}
-        db.collection(COLLECTION_USERS)
-                .document(user.getUid())
-                .collection(COLLECTION_SAVED_ARTICLES)
-                .document(articleId)
-                .set(article.toMap())
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Article saved successfully: " + article.getTitle());
-                    callback.onSuccess("Article saved successfully");
+        query.limit(pageSize)
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    List<DocumentSnapshot> docs = queryDocumentSnapshots.getDocuments();
+                    List<ArticleModel> articles = new ArrayList<>(docs.size());
+                    for (DocumentSnapshot doc : docs) {
+                        articles.add(toListArticle(doc));
+                    }
+                    Log.d(TAG, "Retrieved page of " + articles.size() + " saved articles");
+                    callback.onPage(articles, docs.isEmpty() ? null : docs.get(docs.size() - 1),
+                            docs.size() == pageSize);
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error saving article", e);
-                    callback.onFailure("Failed to save article: " + e.getMessage());
+                    Log.e(TAG, "Error retrieving saved articles page", e);
+                    callback.onFailure("Failed to load saved articles: " + e.getMessage());
                 });
     }
 
     /**
-     * Check if an article is already saved
-     * @param articleUrl URL of the article
-     * @param callback Callback with result
+     * Listen to real-time updates for the first page of saved articles
+     * Older pages are loaded on demand with getSavedArticlesPage()
+     * Only documents reported by getDocumentChanges() are decoded; unchanged
+     * articles keep their instance so the adapter diff can skip them
+     * Metadata-only snapshots (no document changes) are not delivered
+     * @param pageSize Number of most recent articles kept live
+     * @param listener Listener for real-time updates of the first page
+     * @return Registration to remove when the screen goes away, or null if not signed in
      */
-    public void isArticleSaved(@NonNull String articleUrl, @NonNull SavedCheckCallback callback) {
+    @Nullable
+    public ListenerRegistration listenToSavedArticles(int pageSize, @NonNull PageCallback listener) {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) {
-            callback.onResult(false);
-            return;
+            listener.onFailure("User not authenticated");
+            return null;
         }
 
-        String articleId = generateArticleId(articleUrl);
+        List<ArticleModel> current = new ArrayList<>();
 
-        db.collection(COLLECTION_USERS)
-                .document(user.getUid())
-                .collection(COLLECTION_SAVED_ARTICLES)
-                .document(articleId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    callback.onResult(documentSnapshot.exists());
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error checking saved status", e);
-                    callback.onResult(false);
+        return savedArticlesQuery(user)
+                .limit(pageSize)
+                .addSnapshotListener((queryDocumentSnapshots, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Listen failed", error);
+                        listener.onFailure("Failed to listen to changes: " + error.getMessage());
+                        return;
+                    }
+
+                    if (queryDocumentSnapshots != null) {
+                        List<DocumentChange> changes = queryDocumentSnapshots.getDocumentChanges();
+                        if (changes.isEmpty() && !current.isEmpty()) {
+                            return;
+                        }
+                        applyChanges(current, changes);
+                        Log.d(TAG, "Real-time update: " + changes.size() + " changes, "
+                                + current.size() + " articles");
+
+                        List<DocumentSnapshot> docs = queryDocumentSnapshots.getDocuments();
+                        listener.onPage(new ArrayList<>(current),
+                                docs.isEmpty() ? null : docs.get(docs.size() - 1),
+                                docs.size() == pageSize);
+                    }
                 });
     }
 
     /**
-     * Delete a saved article
-     * @param articleUrl URL of the article
-     * @param callback Callback with success/failure
+     * Listen to every saved article, decoded off the main thread
+     * The first snapshot carries the whole collection, later ones only what changed
+     * Documents still stored under a legacy ID never report removed keys, since
+     * the canonical copy of the same article may still exist
+     * @param executor Executor the listener runs on
+     * @param listener Listener for added, modified and removed articles
+     * @return Registration to remove when no longer needed, or null if not signed in
      */
-    public void deleteArticle(@NonNull String articleUrl, @NonNull FirestoreCallback callback) {
+    @Nullable
+    public ListenerRegistration listenToSavedArticleChanges(@NonNull Executor executor,
+                                                            @NonNull SavedChangesCallback listener) {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) {
-            callback.onFailure("User not authenticated");
-            return;
+            listener.onFailure("User not authenticated");
+            return null;
         }
 
-        String articleId = generateArticleId(articleUrl);
+        boolean[] firstSnapshot = {true};
 
-        db.collection(COLLECTION_USERS)
+        return db.collection(COLLECTION_USERS)
                 .document(user.getUid())
                 .collection(COLLECTION_SAVED_ARTICLES)
-                .document(articleId)
-                .delete()
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Article deleted successfully");
-                    callback.onSuccess("Article removed from saved");
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error deleting article", e);
-                    callback.onFailure("Failed to delete article: " + e.getMessage());
+                .addSnapshotListener(executor, (queryDocumentSnapshots, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Saved changes listen failed", error);
+                        listener.onFailure("Failed to listen to saved articles: " + error.getMessage());
+                        return;
+                    }
+                    if (queryDocumentSnapshots == null) {
+                        return;
+                    }
+
+                    List<DocumentChange> changes = queryDocumentSnapshots.getDocumentChanges();
+                    boolean complete = firstSnapshot[0];
+                    if (changes.isEmpty() && !complete) {
+                        return;
+                    }
+                    firstSnapshot[0] = false;
+
+                    List<ArticleModel> upserted = new ArrayList<>();
+                    List<String> removedIds = new ArrayList<>();
+                    long[] removedKeys = new long[changes.size()];
+                    int removedKeyCount = 0;
+                    for (DocumentChange change : changes) {
+                        DocumentSnapshot doc = change.getDocument();
+                        if (change.getType() != DocumentChange.Type.REMOVED) {
+                            upserted.add(ArticleFirestoreCodec.decode(doc, true));
+                            continue;
+                        }
+                        removedIds.add(doc.getId());
+                        long key = ArticleIdentity.key(doc.getString("url"),
+                                doc.getString("title"), doc.getString("publishedAt"));
+                        if (doc.getId().equals(ArticleIdentity.toId(key))) {
+                            removedKeys[removedKeyCount++] = key;
+                        }
+                    }
+                    listener.onChanges(upserted, removedIds,
+                            Arrays.copyOf(removedKeys, removedKeyCount), complete);
                 });
     }
 
     /**
-     * Get all saved articles for the current user
-     * Sorted by saved timestamp (most recent first)
-     * @param callback Callback with list of articles
+     * Reference to users/{uid}/saved_articles/{articleId} for the current user
+     * @return Document reference, or null if not signed in
+     */
+    @Nullable
+    DocumentReference savedArticleRef(@NonNull String articleId) {
+        FirebaseUser user = auth.getCurrentUser();
+        if (user == null) {
+            return null;
+        }
+        return db.collection(COLLECTION_USERS)
+                .document(user.getUid())
+                .collection(COLLECTION_SAVED_ARTICLES)
+                .document(articleId);
+    }
+
+    /**
+     * Reference to users/{uid}/saved_article_content/{articleId} for the current user
+     * @return Document reference, or null if not signed in
      */
-    public void getSavedArticles(@NonNull ArticlesCallback callback) {
+    @Nullable
+    DocumentReference savedContentRef(@NonNull String articleId) {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) {
+            return null;
+        }
+        return db.collection(COLLECTION_USERS)
+                .document(user.getUid())
+                .collection(COLLECTION_SAVED_CONTENT)
+                .document(articleId);
+    }
+
+    /**
+     * Load the body of a saved article, stored apart from the article document
+     * Inline content of articles saved before the split arrives with the article itself
+     * @param articleId Saved article ID
+     * @param callback Callback with the content, null if the article has none
+     */
+    public void loadArticleContent(@NonNull String articleId, @NonNull ContentCallback callback) {
+        DocumentReference contentRef = savedContentRef(articleId);
+        if (contentRef == null) {
             callback.onFailure("User not authenticated");
             return;
         }
 
-        db.collection(COLLECTION_USERS)
-                .document(user.getUid())
-                .collection(COLLECTION_SAVED_ARTICLES)
-                .orderBy("savedTimestamp", Query.Direction.DESCENDING)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<ArticleModel> articles = new ArrayList<>();
-                    for (DocumentSnapshot doc : queryDocumentSnapshots.getDocuments()) {
-                        ArticleModel article = ArticleModel.fromMap(doc.getData());
-                        article.setArticleId(doc.getId());
-                        articles.add(article);
-                    }
-                    Log.d(TAG, "Retrieved " + articles.size() + " saved articles");
-                    callback.onSuccess(articles);
-                })
+        contentRef.get()
+                .addOnSuccessListener(doc -> callback.onContent(
+                        doc.exists() ? doc.getString(ArticleFirestoreCodec.FIELD_CONTENT) : null))
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error retrieving saved articles", e);
-                    callback.onFailure("Failed to load saved articles: " + e.getMessage());
+                    Log.e(TAG, "Error loading article content", e);
+                    callback.onFailure("Failed to load article content: " + e.getMessage());
                 });
     }
 
+    FirebaseFirestore getFirestore() {
+        return db;
+    }
+
+    private Query savedArticlesQuery(FirebaseUser user) {
+        return db.collection(COLLECTION_USERS)
+                .document(user.getUid())
+                .collection(COLLECTION_SAVED_ARTICLES)
+                .orderBy("savedTimestamp", Query.Direction.DESCENDING);
+    }
+
+    /**
+     * Apply Firestore document changes to a list kept in query order
+     * Changes are reported in order, so each index refers to the list
+     * after the previous change has been applied
+     */
+    private static void applyChanges(List<ArticleModel> articles, List<DocumentChange> changes) {
+        for (DocumentChange change : changes) {
+            switch (change.getType()) {
+                case ADDED:
+                    articles.add(change.getNewIndex(), toListArticle(change.getDocument()));
+                    break;
+                case MODIFIED:
+                    articles.remove(change.getOldIndex());
+                    articles.add(change.getNewIndex(), toListArticle(change.getDocument()));
+                    break;
+                case REMOVED:
+                    articles.remove(change.getOldIndex());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Decode a saved article for the saved list, which never shows the body
+     */
+    private static ArticleModel toListArticle(DocumentSnapshot doc) {
+        return ArticleFirestoreCodec.decode(doc, false);
+    }
+
+    /**
+     * Generate a unique article ID
+     * Uses the canonical 64-bit identity of the article, see {@link ArticleIdentity#key(ArticleModel)}
+     * @param article Article to identify
+     * @return Unique article ID
+     */
+    static String generateArticleId(ArticleModel article) {
+        return ArticleIdentity.articleId(article);
+    }
+
     /**
-     * Listen to real-time updates for saved articles
-     * @param listener Listener for real-time updates
+     * Move documents stored under legacy IDs ("article_" + String.hashCode)
+     * to their canonical ID. Legacy links that normalize to an article which is
+     * already stored are simply removed, which also merges duplicates.
+     * @param callback Callback with the number of migrated documents
      */
-    public void listenToSavedArticles(@NonNull ArticlesCallback listener) {
+    public void migrateArticleIds(@NonNull FirestoreCallback callback) {
         FirebaseUser user = auth.getCurrentUser();
         if (user == null) {
-            listener.onFailure("User not authenticated");
+            callback.onFailure("User not authenticated");
             return;
         }
 
+        // Unordered, so documents without savedTimestamp are migrated too
         db.collection(COLLECTION_USERS)
                 .document(user.getUid())
                 .collection(COLLECTION_SAVED_ARTICLES)
-                .orderBy("savedTimestamp", Query.Direction.DESCENDING)
-                .addSnapshotListener((queryDocumentSnapshots, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Listen failed", error);
-                        listener.onFailure("Failed to listen to changes: " + error.getMessage());
-                        return;
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    List<DocumentSnapshot> docs = queryDocumentSnapshots.getDocuments();
+                    Set<String> existingIds = new HashSet<>();
+                    for (DocumentSnapshot doc : docs) {
+                        existingIds.add(doc.getId());
                     }
 
-                    if (queryDocumentSnapshots != null) {
-                        List<ArticleModel> articles = new ArrayList<>();
-                        for (DocumentSnapshot doc : queryDocumentSnapshots.getDocuments()) {
-                            ArticleModel article = ArticleModel.fromMap(doc.getData());
-                            article.setArticleId(doc.getId());
-                            articles.add(article);
+                    List<Task<Void>> commits = new ArrayList<>();
+                    WriteBatch batch = db.batch();
+                    int operations = 0;
+                    int migrated = 0;
+                    for (DocumentSnapshot doc : docs) {
+                        String url = doc.getString("url");
+                        if (url == null) {
+                            continue;
+                        }
+                        String canonicalId = ArticleIdentity.toId(ArticleIdentity.key(url,
+                                doc.getString("title"), doc.getString("publishedAt")));
+                        if (doc.getId().equals(canonicalId)) {
+                            continue;
+                        }
+                        Map<String, Object> data = doc.getData();
+                        if (existingIds.add(canonicalId) && data != null) {
+                            // The copy must name its new ID, deletes are addressed by it
+                            data.put("articleId", canonicalId);
+                            batch.set(savedArticleRef(canonicalId), data);
+                            operations++;
+                        }
+                        batch.delete(doc.getReference());
+                        operations++;
+                        migrated++;
+
+                        // Firestore batches are limited to 500 operations
+                        if (operations >= MAX_BATCH_OPERATIONS - 1) {
+                            commits.add(batch.commit());
+                            batch = db.batch();
+                            operations = 0;
                         }
-                        Log.d(TAG, "Real-time update: " + articles.size() + " articles");
-                        listener.onSuccess(articles);
                     }
-                });
-    }
+                    if (operations > 0) {
+                        commits.add(batch.commit());
+                    }
 
-    /**
-     * Generate a unique article ID from URL
-     * Uses hash code to create consistent IDs
-     * @param url Article URL
-     * @return Unique article ID
-     */
-    private String generateArticleId(String url) {
-        if (url == null || url.isEmpty()) {
-            return String.valueOf(System.currentTimeMillis());
-        }
-        // Use URL hash as ID for consistency
-        return "article_" + Math.abs(url.hashCode());
+                    int migratedCount = migrated;
+                    Tasks.whenAll(commits)
+                            .addOnSuccessListener(aVoid -> {
+                                Log.d(TAG, "Migrated " + migratedCount + " article IDs");
+                                callback.onSuccess("Migrated " + migratedCount + " articles");
+                            })
+                            .addOnFailureListener(e -> {
+                                Log.e(TAG, "Error migrating article IDs", e);
+                                callback.onFailure("Failed to migrate articles: " + e.getMessage());
+                            });
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error reading articles for migration", e);
+                    callback.onFailure("Failed to migrate articles: " + e.getMessage());
+                });
     }
 
     // Callback interfaces
@@ -213,12 +382,30 @@ public class FirestoreHelper {
         void onFailure(String error);
     }
 
-    public interface ArticlesCallback {
-        void onSuccess(List<ArticleModel> articles);
+    public interface PageCallback {
+        /**
+         * @param articles Articles in the page, most recent first
+         * @param lastDocument Cursor to pass as startAfter for the next page
+         * @param hasMore False when this page reached the end of the collection
+         */
+        void onPage(List<ArticleModel> articles, @Nullable DocumentSnapshot lastDocument, boolean hasMore);
         void onFailure(String error);
     }
 
-    public interface SavedCheckCallback {
-        void onResult(boolean isSaved);
+    public interface SavedChangesCallback {
+        /**
+         * @param upserted Articles added or modified
+         * @param removedIds Document IDs of deleted articles
+         * @param removedKeys Identity keys of deleted articles stored under canonical IDs
+         * @param complete True when upserted holds the whole collection
+         */
+        void onChanges(List<ArticleModel> upserted, List<String> removedIds, long[] removedKeys,
+                       boolean complete);
+        void onFailure(String error);
+    }
+
+    public interface ContentCallback {
+        void onContent(@Nullable String content);
+        void onFailure(String error);
     }
 }
@@ -0,0 +1,256 @@
+package com.nmims.bigmanting.helpers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.WriteBatch;
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.ArticleIdentity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces saved-article writes into Firestore WriteBatches
+ * Saves and deletes are buffered for a short window and committed together,
+ * so a burst of right swipes costs one round trip instead of one per card
+ * Writes to the same article within a window collapse into the last one
+ * Every per-item callback is still invoked once the batch completes
+ * One instance per process, so logout can flush it from any screen
+ * Must be used from the main thread
+ */
+public class FirestoreWriteBatcher {
+
+    private static final String TAG = "FirestoreWriteBatcher";
+    // Right swipes within this window are committed as one Firestore batch
+    private static final long WINDOW_MS = 1500;
+
+    // Firestore rejects batches with more than 500 operations; a save takes up
+    // to two (article + content), a delete up to three (article, content, legacy ID)
+    private static final int MAX_BATCH_OPERATIONS = 500;
+
+    private static FirestoreWriteBatcher instance;
+
+    private final FirestoreHelper firestoreHelper;
+    private final long windowMs;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+
+    // Pending operations keyed by article ID, in arrival order
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    // Batch operations the pending writes will take
+    private int pendingOperations;
+    // Committed batches not acknowledged yet, and who waits for them
+    private int commitsInFlight;
+    private final List<Runnable> flushWaiters = new ArrayList<>();
+    private BatchListener batchListener;
+
+    /**
+     * @param firestoreHelper Helper providing document references
+     * @param windowMs How long to buffer writes before committing
+     */
+    private FirestoreWriteBatcher(@NonNull FirestoreHelper firestoreHelper, long windowMs) {
+        this.firestoreHelper = firestoreHelper;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Get singleton instance of FirestoreWriteBatcher
+     * @return FirestoreWriteBatcher instance
+     */
+    public static synchronized FirestoreWriteBatcher getInstance() {
+        if (instance == null) {
+            instance = new FirestoreWriteBatcher(new FirestoreHelper(), WINDOW_MS);
+        }
+        return instance;
+    }
+
+    /**
+     * Queue an article save
+     * @param article Article to save
+     * @param callback Callback invoked when the batch commits
+     */
+    public void saveArticle(@NonNull ArticleModel article, @NonNull FirestoreHelper.FirestoreCallback callback) {
+        article.setSavedTimestamp(System.currentTimeMillis());
+        String articleId = FirestoreHelper.generateArticleId(article);
+        article.setArticleId(articleId);
+        enqueue(articleId, article.getUrl(), article, callback);
+    }
+
+    /**
+     * Queue an article delete
+     * @param article Article to delete
+     * @param callback Callback invoked when the batch commits
+     */
+    public void deleteArticle(@NonNull ArticleModel article, @NonNull FirestoreHelper.FirestoreCallback callback) {
+        enqueue(FirestoreHelper.generateArticleId(article), article.getUrl(), null, callback);
+    }
+
+    /**
+     * Listen for whole-batch results, e.g. to show one Toast per batch
+     */
+    public void setBatchListener(@Nullable BatchListener listener) {
+        this.batchListener = listener;
+    }
+
+    private void enqueue(String articleId, String url, @Nullable ArticleModel article,
+                         FirestoreHelper.FirestoreCallback callback) {
+        PendingWrite write = pending.remove(articleId);
+        if (write == null) {
+            write = new PendingWrite();
+        } else {
+            pendingOperations -= write.operations();
+        }
+        write.url = url;
+        write.article = article;
+        write.callbacks.add(callback);
+
+        // Commit what is buffered if this write would push the batch past the limit
+        if (pendingOperations + write.operations() > MAX_BATCH_OPERATIONS) {
+            flush();
+        }
+        pending.put(articleId, write);
+        pendingOperations += write.operations();
+
+        handler.removeCallbacks(flushRunnable);
+        handler.postDelayed(flushRunnable, windowMs);
+    }
+
+    /**
+     * Commit everything buffered so far and run a callback once every batch
+     * committed so far has completed, e.g. before signing out
+     * @param onDone Runs on the main thread after success or failure
+     */
+    public void flush(@NonNull Runnable onDone) {
+        flush();
+        if (commitsInFlight == 0) {
+            onDone.run();
+        } else {
+            flushWaiters.add(onDone);
+        }
+    }
+
+    /**
+     * Commit everything buffered so far, e.g. when the screen is stopped
+     */
+    public void flush() {
+        handler.removeCallbacks(flushRunnable);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, PendingWrite> writes = new LinkedHashMap<>(pending);
+        pending.clear();
+        pendingOperations = 0;
+
+        WriteBatch batch = firestoreHelper.getFirestore().batch();
+        int saves = 0;
+        int deletes = 0;
+        for (Map.Entry<String, PendingWrite> entry : writes.entrySet()) {
+            DocumentReference ref = firestoreHelper.savedArticleRef(entry.getKey());
+            if (ref == null) {
+                dispatchResult(writes, false, "User not authenticated");
+                if (batchListener != null) {
+                    batchListener.onBatchFailed("User not authenticated");
+                }
+                return;
+            }
+            ArticleModel article = entry.getValue().article;
+            DocumentReference contentRef = firestoreHelper.savedContentRef(entry.getKey());
+            if (article != null) {
+                batch.set(ref, ArticleFirestoreCodec.encode(article));
+                Map<String, Object> content = ArticleFirestoreCodec.encodeContent(article);
+                if (content != null) {
+                    batch.set(contentRef, content);
+                }
+                saves++;
+            } else {
+                batch.delete(ref);
+                batch.delete(contentRef);
+                String legacyId = ArticleIdentity.legacyArticleId(entry.getValue().url);
+                if (legacyId != null) {
+                    batch.delete(firestoreHelper.savedArticleRef(legacyId));
+                }
+                deletes++;
+            }
+        }
+
+        int savedCount = saves;
+        int deletedCount = deletes;
+        commitsInFlight++;
+        // Waiters run only after the callbacks, since a waiter may sign the user out
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
+                    Log.d(TAG, "Batch committed: " + savedCount + " saves, " + deletedCount + " deletes");
+                    dispatchResult(writes, true, null);
+                    if (batchListener != null) {
+                        batchListener.onBatchCommitted(savedCount, deletedCount);
+                    }
+                    onCommitDone();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error committing batch", e);
+                    dispatchResult(writes, false, "Failed to save articles: " + e.getMessage());
+                    if (batchListener != null) {
+                        batchListener.onBatchFailed(e.getMessage());
+                    }
+                    onCommitDone();
+                });
+    }
+
+    private void onCommitDone() {
+        if (--commitsInFlight > 0) {
+            return;
+        }
+        List<Runnable> waiters = new ArrayList<>(flushWaiters);
+        flushWaiters.clear();
+        for (Runnable waiter : waiters) {
+            waiter.run();
+        }
+    }
+
+    private static void dispatchResult(Map<String, PendingWrite> writes, boolean success, @Nullable String error) {
+        for (PendingWrite write : writes.values()) {
+            for (FirestoreHelper.FirestoreCallback callback : write.callbacks) {
+                if (success) {
+                    callback.onSuccess(write.article != null
+                            ? "Article saved successfully" : "Article removed from saved");
+                } else {
+                    callback.onFailure(error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffered write for one article; article is null for a delete
+     */
+    private static class PendingWrite {
+        String url;
+        ArticleModel article;
+        final List<FirestoreHelper.FirestoreCallback> callbacks = new ArrayList<>();
+
+        /**
+         * Number of batch operations flush() issues for this write
+         */
+        int operations() {
+            if (article != null) {
+                return ArticleFirestoreCodec.encodeContent(article) != null ? 2 : 1;
+            }
+            return ArticleIdentity.legacyArticleId(url) != null ? 3 : 2;
+        }
+    }
+
+    // Callback interface
+    public interface BatchListener {
+        void onBatchCommitted(int saved, int deleted);
+        void onBatchFailed(String error);
+    }
+}
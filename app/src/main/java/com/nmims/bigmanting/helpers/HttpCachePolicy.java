@@ -0,0 +1,113 @@
+package com.nmims.bigmanting.helpers;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Per-endpoint HTTP cache policy for NewsAPI requests
+ * NewsAPI does not send useful Cache-Control headers, so responses are rewritten
+ * with a max-age per endpoint before OkHttp stores them. ETag / Last-Modified
+ * headers are left untouched so expired entries are revalidated with a
+ * conditional request (304) instead of a full download.
+ * When the network fails, a stale cached copy is served up to stale-if-error.
+ */
+public class HttpCachePolicy {
+
+    private static final String TAG = "HttpCachePolicy";
+
+    private final Map<String, Policy> policies = new LinkedHashMap<>();
+
+    /**
+     * Register a policy for an endpoint
+     * @param path Endpoint path as declared in NewsApiService (e.g. "v2/top-headlines")
+     * @param maxAgeSeconds How long a response is served without revalidation
+     * @param staleIfErrorSeconds How long a stale response may be served when offline
+     * @return this, for chaining
+     */
+    public HttpCachePolicy forEndpoint(@NonNull String path, int maxAgeSeconds, int staleIfErrorSeconds) {
+        policies.put(path.startsWith("/") ? path : "/" + path,
+                new Policy(maxAgeSeconds, staleIfErrorSeconds));
+        return this;
+    }
+
+    /**
+     * Interceptor to add with addInterceptor(): serves stale cache on network errors
+     */
+    public Interceptor staleIfErrorInterceptor() {
+        return chain -> {
+            Request request = chain.request();
+            try {
+                return chain.proceed(request);
+            } catch (IOException e) {
+                Policy policy = policyFor(request);
+                if (policy == null || policy.staleIfErrorSeconds <= 0 || !"GET".equals(request.method())) {
+                    throw e;
+                }
+
+                Request cacheOnly = request.newBuilder()
+                        .cacheControl(new CacheControl.Builder()
+                                .onlyIfCached()
+                                .maxStale(policy.staleIfErrorSeconds, TimeUnit.SECONDS)
+                                .build())
+                        .build();
+                Response cached = chain.proceed(cacheOnly);
+                if (cached.code() == 504) {
+                    // Nothing usable in the cache, surface the original error
+                    cached.close();
+                    throw e;
+                }
+                Log.d(TAG, "Serving stale response for " + request.url().encodedPath());
+                return cached;
+            }
+        };
+    }
+
+    /**
+     * Interceptor to add with addNetworkInterceptor(): rewrites caching headers
+     */
+    public Interceptor cacheHeadersInterceptor() {
+        return chain -> {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+            Policy policy = policyFor(request);
+            if (policy == null || !response.isSuccessful()) {
+                return response;
+            }
+
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", "public, max-age=" + policy.maxAgeSeconds)
+                    .build();
+        };
+    }
+
+    @Nullable
+    private Policy policyFor(Request request) {
+        return policies.get(request.url().encodedPath());
+    }
+
+    /**
+     * Cache timings for one endpoint
+     */
+    private static class Policy {
+        final int maxAgeSeconds;
+        final int staleIfErrorSeconds;
+
+        Policy(int maxAgeSeconds, int staleIfErrorSeconds) {
+            this.maxAgeSeconds = maxAgeSeconds;
+            this.staleIfErrorSeconds = staleIfErrorSeconds;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.nmims.bigmanting.helpers;
+
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.request.target.Target;
+import com.nmims.bigmanting.models.CardViewState;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Look-ahead image loader for the card deck
+ * Preloads and decodes the next N card images with the same ImageRequestPolicy
+ * and size CardAdapter binds them with, so the bind hits Glide's memory cache
+ * instead of showing the placeholder. Requests behind the top card are released
+ * as the user swipes, and everything is cancelled when the deck is replaced.
+ * How far ahead to load follows NetworkQuality: one card on a poor network,
+ * up to eight on Wi-Fi.
+ */
+public class ImagePrefetcher {
+
+    private final RequestManager glide;
+    private final ImageRequestPolicy imagePolicy;
+    private final NetworkQuality networkQuality;
+    private final Map<String, Target<Drawable>> inFlight = new HashMap<>();
+
+    private int targetWidth;
+    private int targetHeight;
+
+    /**
+     * @param glide Request manager bound to the screen lifecycle
+     * @param imagePolicy Policy shared with CardAdapter
+     * @param networkQuality Source of the number of cards to load ahead
+     */
+    public ImagePrefetcher(@NonNull RequestManager glide, @NonNull ImageRequestPolicy imagePolicy,
+                           @NonNull NetworkQuality networkQuality) {
+        this.glide = glide;
+        this.imagePolicy = imagePolicy;
+        this.networkQuality = networkQuality;
+    }
+
+    /**
+     * Set the decode size of card images; prefetch is disabled until this is known
+     */
+    public void setTargetSize(int width, int height) {
+        if (width != targetWidth || height != targetHeight) {
+            cancelAll();
+            targetWidth = width;
+            targetHeight = height;
+        }
+    }
+
+    /**
+     * Preload images for the cards following the top card
+     * @param states Cards of the current deck, as bound by CardAdapter
+     * @param topPosition CardStackLayoutManager.getTopPosition()
+     */
+    public void prefetch(@NonNull List<CardViewState> states, int topPosition) {
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return;
+        }
+
+        // Release images for cards that are no longer ahead of the user
+        Set<String> window = new HashSet<>();
+        int end = Math.min(states.size(), topPosition + networkQuality.getPrefetchDepth());
+        for (int i = Math.max(topPosition, 0); i < end; i++) {
+            String url = states.get(i).imageUrl;
+            if (url != null) {
+                window.add(url);
+            }
+        }
+        Iterator<Map.Entry<String, Target<Drawable>>> iterator = inFlight.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Target<Drawable>> entry = iterator.next();
+            if (!window.contains(entry.getKey())) {
+                glide.clear(entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        for (String url : window) {
+            if (!inFlight.containsKey(url)) {
+                inFlight.put(url, imagePolicy.request(glide, url, ImageRequestPolicy.Surface.CARD,
+                                targetWidth, targetHeight, false)
+                        .preload(targetWidth, targetHeight));
+            }
+        }
+    }
+
+    /**
+     * Cancel every pending preload (category change, screen destroyed)
+     */
+    public void cancelAll() {
+        for (Target<Drawable> target : inFlight.values()) {
+            glide.clear(target);
+        }
+        inFlight.clear();
+    }
+}
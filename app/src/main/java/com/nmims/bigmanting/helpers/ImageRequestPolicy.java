@@ -0,0 +1,110 @@
+package com.nmims.bigmanting.helpers;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.nmims.bigmanting.R;
+
+/**
+ * Decides how article images are decoded for each surface
+ * - CARD: full-width hero image, ARGB_8888 (RGB_565 on low-RAM devices);
+ *   when the image is already on disk a quarter-size thumbnail is shown first
+ *   while the full image decodes, a missing image is fetched only once
+ * - SAVED_ROW: small square thumbnail, always RGB_565, decoded at the row size
+ * Publisher images are often 2-4 MP; decoding at the target size and in
+ * RGB_565 cuts bitmap memory per item several times over
+ * Size and format depend only on the device and the view, never on the
+ * current network class, so a prefetched image and the bound one share a
+ * resource cache key
+ */
+public class ImageRequestPolicy {
+
+    private static final float THUMBNAIL_SIZE_MULTIPLIER = 0.25f;
+
+    private static ImageRequestPolicy instance;
+
+    private final boolean lowRamDevice;
+    private final int savedRowSizePx;
+
+    /**
+     * Surfaces that display article images
+     */
+    public enum Surface {
+        CARD,
+        SAVED_ROW
+    }
+
+    private ImageRequestPolicy(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        this.lowRamDevice = activityManager != null && activityManager.isLowRamDevice();
+        this.savedRowSizePx = context.getResources().getDimensionPixelSize(R.dimen.saved_thumbnail_size);
+    }
+
+    /**
+     * Get singleton instance of ImageRequestPolicy
+     * @param context Any context
+     * @return ImageRequestPolicy instance
+     */
+    public static synchronized ImageRequestPolicy getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new ImageRequestPolicy(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Build an image request for a surface
+     * Binding and preloading must use the same surface and size to share a cache key
+     * @param glide Request manager
+     * @param url Image URL
+     * @param surface Where the image is shown
+     * @param width Target width in px, 0 to use the surface default
+     * @param height Target height in px, 0 to use the surface default
+     * @param withThumbnail False for preloads, which only need the full image
+     * @return Request ready for into() or preload()
+     */
+    public RequestBuilder<Drawable> request(@NonNull RequestManager glide, @NonNull String url,
+                                            @NonNull Surface surface, int width, int height,
+                                            boolean withThumbnail) {
+        if (surface == Surface.SAVED_ROW && (width <= 0 || height <= 0)) {
+            width = savedRowSizePx;
+            height = savedRowSizePx;
+        }
+        RequestBuilder<Drawable> request = glide.load(url)
+                .diskCacheStrategy(DiskCacheStrategy.ALL)
+                .format(formatFor(surface))
+                .downsample(DownsampleStrategy.CENTER_OUTSIDE)
+                .placeholder(R.drawable.placeholder_news)
+                .error(R.drawable.placeholder_news)
+                .centerCrop();
+        if (width > 0 && height > 0) {
+            request = request.override(width, height);
+        }
+
+        if (withThumbnail && surface == Surface.CARD) {
+            request = request.thumbnail(glide.load(url)
+                    .diskCacheStrategy(DiskCacheStrategy.ALL)
+                    .format(DecodeFormat.PREFER_RGB_565)
+                    .sizeMultiplier(THUMBNAIL_SIZE_MULTIPLIER)
+                    // Never a second download of the same URL next to the full request
+                    .onlyRetrieveFromCache(true)
+                    .centerCrop());
+        }
+        return request;
+    }
+
+    private DecodeFormat formatFor(Surface surface) {
+        if (surface == Surface.SAVED_ROW || lowRamDevice) {
+            return DecodeFormat.PREFER_RGB_565;
+        }
+        return DecodeFormat.PREFER_ARGB_8888;
+    }
+}
@@ -0,0 +1,124 @@
+package com.nmims.bigmanting.helpers;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory registry of network timings per endpoint
+ * Each endpoint keeps a fixed-size ring buffer of samples per metric,
+ * so recording is allocation-free and memory stays bounded
+ * Percentiles are computed on demand from a sorted copy
+ */
+public class NetworkMetrics {
+
+    private static final int SAMPLES_PER_METRIC = 128;
+
+    private static NetworkMetrics instance;
+
+    private final Map<String, long[][]> samples = new HashMap<>();
+    private final Map<String, int[]> counts = new HashMap<>();
+
+    /**
+     * Recorded metrics. Durations are in milliseconds, BODY_BYTES in bytes.
+     */
+    public enum Metric {
+        DNS, CONNECT, TLS, TTFB, TOTAL, BODY_BYTES, PARSE
+    }
+
+    private NetworkMetrics() {
+    }
+
+    /**
+     * Get singleton instance of NetworkMetrics
+     * @return NetworkMetrics instance
+     */
+    public static synchronized NetworkMetrics getInstance() {
+        if (instance == null) {
+            instance = new NetworkMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Record one sample
+     * @param endpoint Endpoint path (e.g. "v2/top-headlines")
+     * @param metric Metric being recorded
+     * @param value Duration in ms or size in bytes
+     */
+    public synchronized void record(@NonNull String endpoint, @NonNull Metric metric, long value) {
+        long[][] endpointSamples = samples.get(endpoint);
+        int[] endpointCounts = counts.get(endpoint);
+        if (endpointSamples == null) {
+            endpointSamples = new long[Metric.values().length][SAMPLES_PER_METRIC];
+            endpointCounts = new int[Metric.values().length];
+            samples.put(endpoint, endpointSamples);
+            counts.put(endpoint, endpointCounts);
+        }
+
+        int index = metric.ordinal();
+        endpointSamples[index][endpointCounts[index] % SAMPLES_PER_METRIC] = value;
+        endpointCounts[index]++;
+    }
+
+    /**
+     * Get a percentile over the retained samples
+     * @param endpoint Endpoint path
+     * @param metric Metric to read
+     * @param percentile Percentile between 0 and 100
+     * @return Value at the percentile, or -1 if nothing was recorded
+     */
+    public synchronized long percentile(@NonNull String endpoint, @NonNull Metric metric, double percentile) {
+        long[][] endpointSamples = samples.get(endpoint);
+        if (endpointSamples == null) {
+            return -1;
+        }
+
+        int index = metric.ordinal();
+        int size = Math.min(counts.get(endpoint)[index], SAMPLES_PER_METRIC);
+        if (size == 0) {
+            return -1;
+        }
+
+        long[] sorted = Arrays.copyOf(endpointSamples[index], size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(rank, size - 1))];
+    }
+
+    /**
+     * Get the number of samples ever recorded for a metric
+     */
+    public synchronized int count(@NonNull String endpoint, @NonNull Metric metric) {
+        int[] endpointCounts = counts.get(endpoint);
+        return endpointCounts != null ? endpointCounts[metric.ordinal()] : 0;
+    }
+
+    /**
+     * Human readable p50/p90/p99 summary of every endpoint, for logs and bug reports
+     * Contains endpoint paths and numbers only, so it is safe to log in release builds
+     * @return Summary, empty if nothing was recorded
+     */
+    @NonNull
+    public synchronized String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (String endpoint : samples.keySet()) {
+            builder.append(endpoint).append('\n');
+            for (Metric metric : Metric.values()) {
+                if (count(endpoint, metric) == 0) {
+                    continue;
+                }
+                builder.append(String.format(Locale.US, "  %-10s p50=%d p90=%d p99=%d (n=%d)%n",
+                        metric.name(),
+                        percentile(endpoint, metric, 50),
+                        percentile(endpoint, metric, 90),
+                        percentile(endpoint, metric, 99),
+                        count(endpoint, metric)));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package com.nmims.bigmanting.helpers;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * OkHttp EventListener that records per-call timings into NetworkMetrics
+ * One instance is created per call by FACTORY, so no synchronization is needed
+ * Phases that did not happen (pooled connection, cache hit) are not recorded
+ * Also adds up the traffic of requests passed to watch(), for data budgets
+ */
+public class NetworkMetricsListener extends EventListener {
+
+    public static final EventListener.Factory FACTORY = call -> new NetworkMetricsListener();
+
+    // Transfers being counted, by original request (compared by identity)
+    private static final Map<Request, Transfer> watched =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long tlsStart;
+    private long requestStart;
+    private long bodyBytes = -1;
+
+    /**
+     * Count what a call actually sends to the network
+     * Pass Call.request() before executing the call; retries are counted too
+     * @param request Request of the call to count
+     * @param transfer Totals to add to, may be shared by several calls
+     */
+    public static void watch(@NonNull Request request, @NonNull Transfer transfer) {
+        watched.put(request, transfer);
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    private static String endpoint(Call call) {
+        String path = call.request().url().encodedPath();
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private static void record(Call call, NetworkMetrics.Metric metric, long value) {
+        NetworkMetrics.getInstance().record(endpoint(call), metric, value);
+    }
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        callStart = now();
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStart = now();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName,
+                       @NonNull List<InetAddress> inetAddressList) {
+        record(call, NetworkMetrics.Metric.DNS, now() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                             @NonNull Proxy proxy) {
+        connectStart = now();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        tlsStart = now();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        record(call, NetworkMetrics.Metric.TLS, now() - tlsStart);
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                           @NonNull Proxy proxy, @Nullable Protocol protocol) {
+        record(call, NetworkMetrics.Metric.CONNECT, now() - connectStart);
+    }
+
+    @Override
+    public void requestHeadersStart(@NonNull Call call) {
+        requestStart = now();
+        Transfer transfer = watched.get(call.request());
+        if (transfer != null) {
+            transfer.requests.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        // Time to first byte, measured from the request being written
+        record(call, NetworkMetrics.Metric.TTFB, now() - requestStart);
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        bodyBytes = byteCount;
+        Transfer transfer = watched.get(call.request());
+        if (transfer != null) {
+            transfer.bytes.addAndGet(byteCount);
+        }
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        record(call, NetworkMetrics.Metric.TOTAL, now() - callStart);
+        if (bodyBytes >= 0) {
+            record(call, NetworkMetrics.Metric.BODY_BYTES, bodyBytes);
+            if (requestStart > 0) {
+                NetworkQuality.getInstance().recordTransfer(bodyBytes, now() - requestStart);
+            }
+        }
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        record(call, NetworkMetrics.Metric.TOTAL, now() - callStart);
+    }
+
+    /**
+     * Network requests sent and response body bytes read for one call
+     * Bytes are counted as read from the socket, so gzipped and chunked bodies
+     * are counted as transferred; a response served from the HTTP cache counts nothing
+     */
+    public static class Transfer {
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+
+        public int getRequests() {
+            return requests.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+    }
+}
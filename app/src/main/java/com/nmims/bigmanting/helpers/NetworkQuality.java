@@ -0,0 +1,193 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+
+/**
+ * Estimates the quality of the current network and derives fetch settings from it
+ * Two signals are combined: the default network's capabilities from
+ * ConnectivityManager (transport, metered, link bandwidth estimate) and the
+ * throughput observed on completed NewsAPI responses (EWMA, large bodies only).
+ * Observed throughput wins once there are enough samples
+ * Each network class maps to timeouts, a page size and an image prefetch depth
+ */
+public class NetworkQuality {
+
+    private static final String TAG = "NetworkQuality";
+
+    // Bodies smaller than this are dominated by latency, not bandwidth
+    private static final long MIN_SAMPLE_BYTES = 16 * 1024;
+    private static final int MIN_SAMPLES = 3;
+    private static final double EWMA_WEIGHT = 0.3;
+
+    private static final int POOR_MAX_KBPS = 400;
+    private static final int MODERATE_MAX_KBPS = 3000;
+    // Look-ahead on unmetered GOOD networks (Wi-Fi, Ethernet)
+    private static final int UNMETERED_PREFETCH_DEPTH = 8;
+
+    private static NetworkQuality instance;
+
+    /**
+     * Network classes, worst first
+     */
+    public enum NetworkClass {
+        // 2G/3G or a congested link: small payloads, patient timeouts
+        POOR(15, 30, 45, 1),
+        MODERATE(30, 15, 30, 3),
+        // Fast link: fail fast and look further ahead
+        GOOD(50, 10, 20, 5);
+
+        public final int pageSize;
+        public final int connectTimeoutSeconds;
+        public final int readTimeoutSeconds;
+        public final int prefetchDepth;
+
+        NetworkClass(int pageSize, int connectTimeoutSeconds, int readTimeoutSeconds,
+                     int prefetchDepth) {
+            this.pageSize = pageSize;
+            this.connectTimeoutSeconds = connectTimeoutSeconds;
+            this.readTimeoutSeconds = readTimeoutSeconds;
+            this.prefetchDepth = prefetchDepth;
+        }
+    }
+
+    // Guarded by this
+    private Network network;
+    private NetworkClass linkClass = NetworkClass.MODERATE;
+    private boolean unmetered;
+    private double throughputKbps;
+    private int throughputSamples;
+
+    private NetworkQuality() {
+    }
+
+    /**
+     * Get singleton instance of NetworkQuality
+     * @return NetworkQuality instance
+     */
+    public static synchronized NetworkQuality getInstance() {
+        if (instance == null) {
+            instance = new NetworkQuality();
+        }
+        return instance;
+    }
+
+    /**
+     * Start following the default network
+     * Call once from Application.onCreate
+     * @param context Any context
+     */
+    public void start(@NonNull Context context) {
+        ConnectivityManager connectivityManager = (ConnectivityManager) context
+                .getApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return;
+        }
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network,
+                                              @NonNull NetworkCapabilities capabilities) {
+                onNetworkChanged(network, capabilities);
+            }
+        });
+    }
+
+    /**
+     * @return Current network class
+     */
+    @NonNull
+    public synchronized NetworkClass getNetworkClass() {
+        if (throughputSamples >= MIN_SAMPLES) {
+            return classify((int) throughputKbps);
+        }
+        return linkClass;
+    }
+
+    /**
+     * @return Number of card images to load ahead of the top card
+     */
+    public synchronized int getPrefetchDepth() {
+        NetworkClass networkClass = getNetworkClass();
+        if (networkClass == NetworkClass.GOOD && unmetered) {
+            return UNMETERED_PREFETCH_DEPTH;
+        }
+        return networkClass.prefetchDepth;
+    }
+
+    /**
+     * Record a completed response body
+     * @param bytes Body size in bytes
+     * @param durationMs Time from request start to body end
+     */
+    public synchronized void recordTransfer(long bytes, long durationMs) {
+        if (bytes < MIN_SAMPLE_BYTES || durationMs <= 0) {
+            return;
+        }
+        double kbps = bytes * 8.0 / durationMs;
+        throughputKbps = throughputSamples == 0 ? kbps
+                : EWMA_WEIGHT * kbps + (1 - EWMA_WEIGHT) * throughputKbps;
+        throughputSamples++;
+    }
+
+    /**
+     * Interceptor to add with addInterceptor(): applies the current class's
+     * timeouts and, where the request does not set one, its pageSize
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            NetworkClass networkClass = getNetworkClass();
+            Request request = chain.request();
+            HttpUrl url = request.url();
+            if (url.queryParameter("pageSize") == null) {
+                request = request.newBuilder()
+                        .url(url.newBuilder()
+                                .addQueryParameter("pageSize", String.valueOf(networkClass.pageSize))
+                                .build())
+                        .build();
+            }
+            return chain
+                    .withConnectTimeout(networkClass.connectTimeoutSeconds, TimeUnit.SECONDS)
+                    .withReadTimeout(networkClass.readTimeoutSeconds, TimeUnit.SECONDS)
+                    .proceed(request);
+        };
+    }
+
+    private synchronized void onNetworkChanged(Network network, NetworkCapabilities capabilities) {
+        // Throughput measured on the previous network says nothing about this one
+        if (!network.equals(this.network)) {
+            this.network = network;
+            throughputSamples = 0;
+        }
+        unmetered = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+
+        int linkKbps = capabilities.getLinkDownstreamBandwidthKbps();
+        if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)
+                || capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+            // Wi-Fi link speeds are radio rates, far above real throughput
+            linkClass = linkKbps > 0 && linkKbps < POOR_MAX_KBPS ? NetworkClass.POOR : NetworkClass.GOOD;
+        } else {
+            linkClass = linkKbps > 0 ? classify(linkKbps) : NetworkClass.MODERATE;
+        }
+
+        Log.d(TAG, "Network changed: " + linkClass + (unmetered ? ", unmetered" : "")
+                + ", link " + linkKbps + " kbps");
+    }
+
+    private static NetworkClass classify(int kbps) {
+        if (kbps < POOR_MAX_KBPS) {
+            return NetworkClass.POOR;
+        }
+        return kbps < MODERATE_MAX_KBPS ? NetworkClass.MODERATE : NetworkClass.GOOD;
+    }
+}
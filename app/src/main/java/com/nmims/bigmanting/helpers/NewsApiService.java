@@ -27,6 +27,24 @@ public interface NewsApiService {
             @Query("apiKey") String apiKey
     );
 
+    /**
+     * Get one page of top headlines
+     * @param country Country code (e.g., "us", "in")
+     * @param category Category (e.g., "technology", "sports", "business")
+     * @param page Page number, starting at 1
+     * @param pageSize Articles per page (max 100)
+     * @param apiKey Your NewsAPI key
+     * @return NewsResponse with articles
+     */
+    @GET("v2/top-headlines")
+    Call<NewsResponse> getTopHeadlinesPage(
+            @Query("country") String country,
+            @Query("category") String category,
+            @Query("page") int page,
+            @Query("pageSize") int pageSize,
+            @Query("apiKey") String apiKey
+    );
+
     /**
      * Search for news articles
      * @param query Search query
@@ -55,6 +73,22 @@ public interface NewsApiService {
             @Query("apiKey") String apiKey
     );
 
+    /**
+     * Get one page of top headlines by category only
+     * @param category Category (e.g., "technology", "sports")
+     * @param page Page number, starting at 1
+     * @param pageSize Articles per page (max 100)
+     * @param apiKey Your NewsAPI key
+     * @return NewsResponse with articles
+     */
+    @GET("v2/top-headlines")
+    Call<NewsResponse> getHeadlinesByCategoryPage(
+            @Query("category") String category,
+            @Query("page") int page,
+            @Query("pageSize") int pageSize,
+            @Query("apiKey") String apiKey
+    );
+
     /**
      * Get everything with query and date range
      * @param query Search query
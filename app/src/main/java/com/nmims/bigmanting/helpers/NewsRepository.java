@@ -0,0 +1,395 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.models.NewsResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Offline-first repository for news feeds
+ * Serves the last stored feed for a category instantly from ArticleCacheHelper,
+ * then revalidates against NewsAPI in the background (stale-while-revalidate)
+ * Fresh results are written back to disk and delivered only when they differ
+ * Network fetches go through a FetchOrchestrator, so a new feed request
+ * supersedes the previous one and identical requests share one call
+ */
+public class NewsRepository {
+
+    private static final String TAG = "NewsRepository";
+
+    // Feeds younger than this are served from disk without hitting the network
+    private static final long FRESH_TTL_MS = 5 * 60 * 1000L;
+    // Orchestrator tag of interactive feed loads; a new load supersedes the last
+    private static final String FEED_FETCH_TAG = "feed";
+    private static final String PAGE_FETCH_TAG = "page";
+
+    private static NewsRepository instance;
+
+    private final ArticleCacheHelper cacheHelper;
+    private final NewsApiService newsApiService;
+    private final RetryPolicy retryPolicy;
+    private final FetchOrchestrator orchestrator = new FetchOrchestrator();
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private NewsRepository(Context context) {
+        this.cacheHelper = new ArticleCacheHelper(context);
+        this.newsApiService = RetrofitClient.getInstance().getNewsApiService();
+        this.retryPolicy = RetrofitClient.getInstance().getRetryPolicy();
+    }
+
+    /**
+     * Get singleton instance of NewsRepository
+     * @param context Any context, the application context is retained
+     * @return NewsRepository instance
+     */
+    public static synchronized NewsRepository getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new NewsRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Load a category feed, cached copy first
+     * The callback may be invoked twice: once with the cached feed and once with
+     * the revalidated feed if the server returned different articles
+     * Starting a load drops the callbacks of the previous one; its network fetch
+     * keeps running until this load either joins it (same request) or replaces
+     * it, so a repeated load does not restart a call that is already in flight
+     * Must be called from the main thread
+     * @param category News category
+     * @param country Country code, null for all countries; when set, country
+     *                headlines are fetched together with worldwide ones and merged
+     * @param apiKey NewsAPI key
+     * @param forceRefresh Revalidate even if the cached feed is still fresh
+     * @param callback Callback invoked on the main thread
+     * @return Handle that cancels the load; no callback runs after it is cancelled
+     */
+    @NonNull
+    public RequestScope.Request loadFeed(@NonNull String category, @Nullable String country,
+                                         @NonNull String apiKey, boolean forceRefresh,
+                                         @NonNull FeedCallback callback) {
+        FeedLoad load = new FeedLoad();
+        // Sent explicitly and stored with the feed, so later pages line up with this one
+        int pageSize = NetworkQuality.getInstance().getNetworkClass().pageSize;
+        diskExecutor.execute(() -> {
+            if (load.cancelled) {
+                return;
+            }
+            ArticleCacheHelper.CachedFeed cached = cacheHelper.getFeed(category, country);
+            boolean hasCache = cached != null && !cached.articles.isEmpty();
+            boolean isFresh = hasCache
+                    && System.currentTimeMillis() - cached.fetchedAt < FRESH_TTL_MS;
+
+            if (hasCache) {
+                mainHandler.post(() -> {
+                    if (!load.cancelled) {
+                        callback.onArticles(cached.articles, true, cached.pageSize);
+                    }
+                });
+            }
+            if (isFresh && !forceRefresh) {
+                Log.d(TAG, "Serving fresh cached feed: " + category);
+                cancelSupersededFetch(load);
+                return;
+            }
+            if (hasCache && retryPolicy.isOpen()) {
+                // NewsAPI is failing; keep showing the stored feed instead of hammering it
+                Log.d(TAG, "Circuit open, serving cached feed: " + category);
+                cancelSupersededFetch(load);
+                if (forceRefresh) {
+                    mainHandler.post(() -> {
+                        if (!load.cancelled) {
+                            callback.onFailure("NewsAPI temporarily unavailable", true);
+                        }
+                    });
+                }
+                return;
+            }
+            mainHandler.post(() -> {
+                if (!load.cancelled) {
+                    load.fetch = fetchFromNetwork(category, country, apiKey, pageSize,
+                            hasCache ? cached.articles : null, load, callback);
+                }
+            });
+        });
+        return load;
+    }
+
+    /**
+     * Cancel the feed fetch of an earlier load once this load turned out not to need the network
+     */
+    private void cancelSupersededFetch(FeedLoad load) {
+        mainHandler.post(() -> {
+            if (!load.cancelled) {
+                orchestrator.cancel(FEED_FETCH_TAG);
+            }
+        });
+    }
+
+    /**
+     * Load a further page of a category feed from the network
+     * Each source of the feed (see {@link #sourceCount}) is paged on its own,
+     * so a source that ran out is no longer asked while the others go on
+     * Pages are not stored; the stored feed is always the first page
+     * Must be called from the main thread
+     * @param category News category
+     * @param country Country code, null for all countries
+     * @param apiKey NewsAPI key
+     * @param pages Page number per source, 2 and up; 0 skips the source
+     * @param pageSize Articles per page
+     * @param callback Callback invoked on the main thread
+     * @return Handle that cancels the load; no callback runs after it is cancelled
+     */
+    @NonNull
+    public RequestScope.Request loadPage(@NonNull String category, @Nullable String country,
+                                         @NonNull String apiKey, @NonNull int[] pages, int pageSize,
+                                         @NonNull PageCallback callback) {
+        List<Call<NewsResponse>> calls = new ArrayList<>();
+        for (int source = 0; source < pages.length; source++) {
+            if (pages[source] > 0) {
+                calls.add(createSourceCall(source, category, country, apiKey, pages[source], pageSize));
+            }
+        }
+        return orchestrator.fetchEach(PAGE_FETCH_TAG, calls, results -> {
+            // Back to one entry per source, null for the skipped ones
+            List<FetchOrchestrator.CallResult> bySource = new ArrayList<>(pages.length);
+            int next = 0;
+            for (int page : pages) {
+                bySource.add(page > 0 ? results.get(next++) : null);
+            }
+            callback.onPage(bySource);
+        });
+    }
+
+    /**
+     * Download a feed and store it, blocking the calling thread
+     * Fetches every source of the feed, like an interactive load
+     * Used by background prefetch; never call from the main thread
+     * @param category News category
+     * @param country Country code, null for all countries
+     * @param apiKey NewsAPI key
+     * @param transfer Receives the requests sent and bytes read, also when this throws
+     * @return Stored articles
+     * @throws IOException on network or HTTP errors
+     */
+    @NonNull
+    public List<ArticleModel> prefetchFeedBlocking(@NonNull String category, @Nullable String country,
+                                                   @NonNull String apiKey,
+                                                   @NonNull NetworkMetricsListener.Transfer transfer)
+            throws IOException {
+        int pageSize = NetworkQuality.getInstance().getNetworkClass().pageSize;
+        List<FetchOrchestrator.CallResult> results = new ArrayList<>();
+        for (Call<NewsResponse> call : createFeedCalls(category, country, apiKey, 1, pageSize)) {
+            Response<NewsResponse> response = executeWithRetries(call, transfer);
+            if (!response.isSuccessful() || response.body() == null) {
+                // Only a complete fan-out is stored as the feed
+                throw new IOException("API Error: " + response.code() + " - " + response.message());
+            }
+            List<ArticleModel> articles = response.body().getArticles();
+            results.add(FetchOrchestrator.CallResult.success(articles != null ? articles : new ArrayList<>()));
+        }
+
+        List<ArticleModel> articles = FetchOrchestrator.merge(results);
+        if (!articles.isEmpty()) {
+            cacheHelper.putFeed(category, country, articles, pageSize, System.currentTimeMillis());
+        }
+        return articles;
+    }
+
+    /**
+     * Execute a call on the calling thread, retrying transient failures as
+     * FetchOrchestrator does; the backoff sleeps this (background) thread
+     * @return Final response, successful or not
+     * @throws IOException on network errors once retries are used up
+     */
+    private static Response<NewsResponse> executeWithRetries(Call<NewsResponse> call,
+                                                             NetworkMetricsListener.Transfer transfer)
+            throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            NetworkMetricsListener.watch(call.request(), transfer);
+            Response<NewsResponse> response = null;
+            IOException error = null;
+            try {
+                response = call.execute();
+            } catch (RetryPolicy.CircuitOpenException e) {
+                throw e;
+            } catch (IOException e) {
+                error = e;
+            }
+            if (response != null && response.isSuccessful()) {
+                return response;
+            }
+
+            long delay = RetryPolicy.retryDelay(attempt, response != null ? response.raw() : null);
+            if (delay < 0) {
+                if (error != null) {
+                    throw error;
+                }
+                return response;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Retry interrupted");
+            }
+            call = call.clone();
+        }
+    }
+
+    /**
+     * Number of endpoints a feed fans out to
+     * A country feed also pulls the worldwide category headlines, local stories first
+     * @param country Country code, null for all countries
+     */
+    public static int sourceCount(@Nullable String country) {
+        return country != null && !country.isEmpty() ? 2 : 1;
+    }
+
+    /**
+     * Calls fanned out for one page of a feed, in source order
+     */
+    private List<Call<NewsResponse>> createFeedCalls(String category, @Nullable String country, String apiKey,
+                                                     int page, int pageSize) {
+        List<Call<NewsResponse>> calls = new ArrayList<>();
+        for (int source = 0; source < sourceCount(country); source++) {
+            calls.add(createSourceCall(source, category, country, apiKey, page, pageSize));
+        }
+        return calls;
+    }
+
+    private Call<NewsResponse> createSourceCall(int source, String category, @Nullable String country,
+                                                String apiKey, int page, int pageSize) {
+        if (source == 0 && sourceCount(country) > 1) {
+            return newsApiService.getTopHeadlinesPage(country, category, page, pageSize, apiKey);
+        }
+        return newsApiService.getHeadlinesByCategoryPage(category, page, pageSize, apiKey);
+    }
+
+    /**
+     * Fetch a feed from NewsAPI and write it back to disk
+     */
+    private RequestScope.Request fetchFromNetwork(String category, @Nullable String country, String apiKey,
+                                                  int pageSize, @Nullable List<ArticleModel> cachedArticles,
+                                                  FeedLoad load, FeedCallback callback) {
+        return orchestrator.fetch(FEED_FETCH_TAG, createFeedCalls(category, country, apiKey, 1, pageSize),
+                new FetchOrchestrator.FetchCallback() {
+            @Override
+            public void onSuccess(List<ArticleModel> fresh, int failedCalls) {
+                long now = System.currentTimeMillis();
+
+                if (cachedArticles != null && sameArticles(cachedArticles, fresh)) {
+                    Log.d(TAG, "Cached feed still current: " + category);
+                    diskExecutor.execute(() -> cacheHelper.touchFeed(category, country, now));
+                    return;
+                }
+
+                // A partial fan-out result is shown but not stored as the feed
+                if (!fresh.isEmpty() && failedCalls == 0) {
+                    diskExecutor.execute(() -> cacheHelper.putFeed(category, country, fresh, pageSize, now));
+                }
+                // A superseded load still stores its result, but no longer delivers it
+                if (!load.cancelled) {
+                    callback.onArticles(fresh, false, pageSize);
+                }
+            }
+
+            @Override
+            public void onFailure(String error) {
+                if (!load.cancelled) {
+                    callback.onFailure(error, cachedArticles != null);
+                }
+            }
+        });
+    }
+
+    /**
+     * Compare two feeds by article URL, in order
+     */
+    private static boolean sameArticles(List<ArticleModel> a, List<ArticleModel> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            String urlA = a.get(i).getUrl();
+            String urlB = b.get(i).getUrl();
+            if (urlA == null ? urlB != null : !urlA.equals(urlB)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A loadFeed in progress: the disk read, then possibly a network fetch
+     */
+    private class FeedLoad implements RequestScope.Request {
+        // Written on the main thread, read on the disk thread too
+        volatile boolean cancelled;
+        boolean superseded;
+        RequestScope.Request fetch;
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (fetch != null) {
+                fetch.cancel();
+                fetch = null;
+            } else if (!superseded) {
+                // Still reading the disk; stop the fetch of a superseded load too
+                orchestrator.cancel(FEED_FETCH_TAG);
+            }
+        }
+
+        @Override
+        public void supersede() {
+            // Late callbacks are dropped; the next load's fetch replaces the network
+            // call, or joins it when it asks for the same URLs
+            cancelled = true;
+            superseded = true;
+            fetch = null;
+        }
+    }
+
+    // Callback interfaces
+    public interface PageCallback {
+        /**
+         * @param results Outcome per source, null for sources that were not requested
+         */
+        void onPage(List<FetchOrchestrator.CallResult> results);
+    }
+
+    public interface FeedCallback {
+        /**
+         * @param articles Articles to display
+         * @param fromCache True if served from local storage
+         * @param pageSize Page size the articles were requested with; request
+         *                 further pages with the same size
+         */
+        void onArticles(List<ArticleModel> articles, boolean fromCache, int pageSize);
+
+        /**
+         * @param error Error message
+         * @param hasCachedData True if a cached feed was already delivered
+         */
+        void onFailure(String error, boolean hasCachedData);
+    }
+}
@@ -0,0 +1,196 @@
+package com.nmims.bigmanting.helpers;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.models.NewsResponse;
+import com.nmims.bigmanting.models.SourceModel;
+import com.nmims.bigmanting.utils.StringPool;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Streaming JSON converter for NewsResponse
+ * Reads the response with a JsonReader instead of building a full Gson tree,
+ * decodes at most maxArticles articles and skips fields the app does not use
+ * Articles past the budget are skipped token by token (not materialized) so the
+ * body is still read to the end and OkHttp can store it in the HTTP cache
+ * Any other response type falls through to the next converter factory
+ */
+public class NewsResponseConverterFactory extends Converter.Factory {
+
+    private final int maxArticles;
+    private final boolean decodeContent;
+
+    private NewsResponseConverterFactory(int maxArticles, boolean decodeContent) {
+        this.maxArticles = maxArticles;
+        this.decodeContent = decodeContent;
+    }
+
+    /**
+     * Create a factory
+     * @param maxArticles Maximum number of articles decoded per response
+     * @param decodeContent False to skip the long "content" field
+     * @return Converter factory
+     */
+    public static NewsResponseConverterFactory create(int maxArticles, boolean decodeContent) {
+        return new NewsResponseConverterFactory(maxArticles, decodeContent);
+    }
+
+    @Nullable
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type,
+                                                            @NonNull Annotation[] annotations,
+                                                            @NonNull Retrofit retrofit) {
+        if (type != NewsResponse.class) {
+            return null;
+        }
+        return body -> {
+            try (JsonReader reader = new JsonReader(body.charStream())) {
+                return parse(reader, maxArticles, decodeContent);
+            }
+        };
+    }
+
+    /**
+     * Parse a NewsResponse from a reader
+     * @param reader Reader positioned at the response object
+     * @param maxArticles Maximum number of articles to decode
+     * @param decodeContent False to skip the "content" field
+     * @return Parsed response, articles are capped at maxArticles
+     */
+    public static NewsResponse parse(@NonNull JsonReader reader, int maxArticles, boolean decodeContent)
+            throws IOException {
+        NewsResponse response = new NewsResponse();
+        List<ArticleModel> articles = new ArrayList<>();
+        response.setArticles(articles);
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "status":
+                    response.setStatus(nextStringOrNull(reader));
+                    break;
+                case "totalResults":
+                    response.setTotalResults(reader.nextInt());
+                    break;
+                case "articles":
+                    readArticles(reader, articles, maxArticles, decodeContent);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return response;
+    }
+
+    private static void readArticles(JsonReader reader, List<ArticleModel> articles, int maxArticles,
+                                     boolean decodeContent) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (articles.size() >= maxArticles) {
+                reader.skipValue();
+                continue;
+            }
+            articles.add(readArticle(reader, decodeContent));
+        }
+        reader.endArray();
+    }
+
+    private static ArticleModel readArticle(JsonReader reader, boolean decodeContent) throws IOException {
+        ArticleModel article = new ArticleModel();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "source":
+                    article.setSource(readSource(reader));
+                    break;
+                case "author":
+                    article.setAuthor(StringPool.intern(nextStringOrNull(reader)));
+                    break;
+                case "title":
+                    article.setTitle(nextStringOrNull(reader));
+                    break;
+                case "description":
+                    article.setDescription(nextStringOrNull(reader));
+                    break;
+                case "url":
+                    article.setUrl(nextStringOrNull(reader));
+                    break;
+                case "urlToImage":
+                    article.setUrlToImage(nextStringOrNull(reader));
+                    break;
+                case "publishedAt":
+                    article.setPublishedAt(nextStringOrNull(reader));
+                    break;
+                case "content":
+                    if (decodeContent) {
+                        article.setContent(nextStringOrNull(reader));
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return article;
+    }
+
+    @Nullable
+    private static SourceModel readSource(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        String id = null;
+        String name = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextStringOrNull(reader);
+                    break;
+                case "name":
+                    name = nextStringOrNull(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        // Shared instance: every article of a source points at the same strings
+        return StringPool.source(id, name);
+    }
+
+    @Nullable
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
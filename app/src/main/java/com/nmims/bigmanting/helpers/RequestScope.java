@@ -0,0 +1,120 @@
+package com.nmims.bigmanting.helpers;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Requests started by one screen, bound to its lifecycle
+ * Each begin() starts a new generation: the requests of the previous one are
+ * superseded (cancelled, unless they can hand their work to the next request),
+ * and callbacks that still arrive for it can be dropped by
+ * checking isCurrent(generation). Everything is cancelled on ON_DESTROY
+ * Requests are held weakly: a running request is kept alive by whatever runs
+ * it (executor, in-flight call), so a finished one can be collected without
+ * waiting for the next begin()
+ * Must be used from the main thread
+ */
+public class RequestScope implements LifecycleEventObserver {
+
+    /**
+     * A running request that can be cancelled
+     */
+    public interface Request {
+        void cancel();
+
+        /**
+         * A newer request of the same scope replaces this one
+         * No callback may run afterwards, but work the next request can share
+         * may be kept; cancels by default
+         */
+        default void supersede() {
+            cancel();
+        }
+    }
+
+    private final List<WeakReference<Request>> requests = new ArrayList<>();
+    private int generation;
+    private boolean destroyed;
+
+    /**
+     * @param owner Screen whose destruction cancels all requests
+     */
+    public RequestScope(@NonNull LifecycleOwner owner) {
+        owner.getLifecycle().addObserver(this);
+    }
+
+    /**
+     * Supersede the current requests and start a new generation
+     * @return Generation number for the requests about to be started
+     */
+    public int begin() {
+        generation++;
+        for (WeakReference<Request> ref : requests) {
+            Request request = ref.get();
+            if (request != null) {
+                request.supersede();
+            }
+        }
+        requests.clear();
+        return generation;
+    }
+
+    /**
+     * Track a request of the current generation
+     * A request tracked after the screen was destroyed is cancelled at once
+     */
+    public void track(@Nullable Request request) {
+        if (request == null) {
+            return;
+        }
+        if (destroyed) {
+            request.cancel();
+            return;
+        }
+        // Drop handles of requests that finished and were collected
+        for (Iterator<WeakReference<Request>> it = requests.iterator(); it.hasNext(); ) {
+            if (it.next().get() == null) {
+                it.remove();
+            }
+        }
+        requests.add(new WeakReference<>(request));
+    }
+
+    /**
+     * @return True if callbacks of this generation should still be handled
+     */
+    public boolean isCurrent(int generation) {
+        return !destroyed && generation == this.generation;
+    }
+
+    /**
+     * Cancel all tracked requests; their late callbacks fail isCurrent
+     */
+    public void cancelAll() {
+        generation++;
+        for (WeakReference<Request> ref : requests) {
+            Request request = ref.get();
+            if (request != null) {
+                request.cancel();
+            }
+        }
+        requests.clear();
+    }
+
+    @Override
+    public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+        if (event == Lifecycle.Event.ON_DESTROY) {
+            destroyed = true;
+            cancelAll();
+            source.getLifecycle().removeObserver(this);
+        }
+    }
+}
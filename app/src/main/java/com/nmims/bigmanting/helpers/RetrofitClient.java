@@ -1,11 +1,21 @@
 package com.nmims.bigmanting.helpers;
 
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.nmims.bigmanting.BuildConfig;
+
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Singleton Retrofit client for NewsAPI
@@ -13,31 +23,73 @@ import java.util.concurrent.TimeUnit;
  */
 public class RetrofitClient {
 
+    private static final String TAG = "RetrofitClient";
     private static final String BASE_URL = "https://newsapi.org/";
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE_BYTES = 10L * 1024 * 1024; // 10 MB
+    private static final int STALE_IF_ERROR_SECONDS = 7 * 24 * 60 * 60; // 1 week
+    private static final int MAX_ARTICLES_PER_RESPONSE = 50;
+    private static final Pattern API_KEY_PATTERN = Pattern.compile("apiKey=[^&\\s]+");
+
     private static RetrofitClient instance;
+    private static File cacheDir;
     private final Retrofit retrofit;
+    private final RetryPolicy retryPolicy = new RetryPolicy();
 
     private RetrofitClient() {
-        // Create HTTP logging interceptor for debugging
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+        // Per-endpoint freshness; expired entries are revalidated via ETag/Last-Modified
+        HttpCachePolicy cachePolicy = new HttpCachePolicy()
+                .forEndpoint("v2/top-headlines", 60, STALE_IF_ERROR_SECONDS)
+                .forEndpoint("v2/everything", 5 * 60, STALE_IF_ERROR_SECONDS);
 
-        // Create OkHttpClient with timeout settings
-        OkHttpClient okHttpClient = new OkHttpClient.Builder()
-                .addInterceptor(loggingInterceptor)
+        // Create OkHttpClient with default timeouts, adjusted per call by NetworkQuality
+        OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
+                // Outermost, so its pageSize and timeouts apply to every retry
+                .addInterceptor(NetworkQuality.getInstance().interceptor())
+                .addInterceptor(cachePolicy.staleIfErrorInterceptor())
+                // Inside stale-if-error, so a failed or short-circuited request can fall back to
+                // cache; the onlyIfCached fallback itself bypasses retries and the circuit
+                .addInterceptor(retryPolicy.interceptor())
+                .addNetworkInterceptor(cachePolicy.cacheHeadersInterceptor())
+                .eventListenerFactory(NetworkMetricsListener.FACTORY)
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+                .writeTimeout(30, TimeUnit.SECONDS);
+
+        // Body logging is debug-only: it buffers every response and prints the API key
+        if (BuildConfig.DEBUG) {
+            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(message ->
+                    Log.d(TAG, API_KEY_PATTERN.matcher(message).replaceAll("apiKey=***")));
+            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+            clientBuilder.addInterceptor(loggingInterceptor);
+        }
+
+        // Bounded on-disk HTTP cache, only available once init() has been called
+        if (cacheDir != null) {
+            clientBuilder.cache(new Cache(cacheDir, HTTP_CACHE_SIZE_BYTES));
+        }
+        OkHttpClient okHttpClient = clientBuilder.build();
 
         // Build Retrofit instance
         retrofit = new Retrofit.Builder()
                 .baseUrl(BASE_URL)
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create())
+                // NewsResponse is stream-parsed with an article budget, anything else uses Gson
+                .addConverterFactory(TimedConverterFactory.create(
+                        NewsResponseConverterFactory.create(MAX_ARTICLES_PER_RESPONSE, true)))
+                .addConverterFactory(TimedConverterFactory.create(GsonConverterFactory.create()))
                 .build();
     }
 
+    /**
+     * Provide the application context so the HTTP cache can be created
+     * Call once from Application.onCreate before the first getInstance()
+     * @param context Any context, only its cache directory is used
+     */
+    public static synchronized void init(@NonNull Context context) {
+        cacheDir = new File(context.getApplicationContext().getCacheDir(), HTTP_CACHE_DIR);
+    }
+
     /**
      * Get singleton instance of RetrofitClient
      * @return RetrofitClient instance
@@ -49,6 +101,14 @@ public class RetrofitClient {
         return instance;
     }
 
+    /**
+     * Get the retry policy, e.g. to check whether the circuit is open
+     * @return RetryPolicy instance
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
     /**
      * Get NewsApiService interface
      * @return NewsApiService instance
@@ -0,0 +1,212 @@
+package com.nmims.bigmanting.helpers;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retry and circuit-breaker policy for NewsAPI requests
+ * - Idempotent GETs that fail with an I/O error, 429 or a 5xx are retried with
+ *   exponential backoff and jitter; a Retry-After header overrides the
+ *   backoff, and a wait longer than the cap is not retried at all. Callers
+ *   schedule retries themselves (see retryDelay()): FetchOrchestrator posts them
+ *   to the main thread, background jobs wait on their own thread, so no OkHttp
+ *   dispatcher thread is ever blocked by a backoff
+ * - After repeated failed attempts the circuit opens: requests fail fast with
+ *   CircuitOpenException instead of hammering the API, so HttpCachePolicy and
+ *   NewsRepository serve cached feeds. After the cooldown one trial request is let
+ *   through; its success closes the circuit, its failure doubles the cooldown
+ * Add with addInterceptor() inside the stale-if-error interceptor
+ */
+public class RetryPolicy {
+
+    private static final String TAG = "RetryPolicy";
+
+    private static final int MAX_RETRIES = 2;
+    private static final long BASE_DELAY_MS = 500;
+    private static final long MAX_DELAY_MS = 8000;
+
+    // Consecutive failed attempts that open the circuit (a request and its retries are three)
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long MIN_COOLDOWN_MS = 30 * 1000L;
+    private static final long MAX_COOLDOWN_MS = 5 * 60 * 1000L;
+
+    /**
+     * Thrown while the circuit is open
+     */
+    public static class CircuitOpenException extends IOException {
+        CircuitOpenException(long retryInMs) {
+            super("NewsAPI temporarily unavailable, retrying in " + (retryInMs + 999) / 1000 + "s");
+        }
+    }
+
+    // Monotonic time in ms
+    private final LongSupplier clock;
+
+    // Circuit state, guarded by this
+    private int consecutiveFailures;
+    private long openUntil;
+    private long cooldownMs = MIN_COOLDOWN_MS;
+    private boolean trialInFlight;
+
+    public RetryPolicy() {
+        this(SystemClock::elapsedRealtime);
+    }
+
+    /**
+     * @param clock Monotonic time in ms
+     */
+    @VisibleForTesting
+    RetryPolicy(@NonNull LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Interceptor to add with addInterceptor()
+     * Sends each attempt once and records its outcome for the circuit
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            Request request = chain.request();
+            if (request.cacheControl().onlyIfCached()) {
+                // Cache-only fallback (stale-if-error): never hits the API, so it
+                // neither waits on the circuit nor counts as a success or failure
+                return chain.proceed(request);
+            }
+            acquire();
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (chain.call().isCanceled()) {
+                    // Cancelled by the caller, says nothing about the API
+                    release();
+                } else {
+                    onFailure(-1);
+                }
+                throw e;
+            }
+            if (isRetryable(response.code())) {
+                onFailure(retryAfter(response));
+            } else {
+                onSuccess();
+            }
+            return response;
+        };
+    }
+
+    /**
+     * Delay before retrying a failed GET: Retry-After if the server sent one,
+     * otherwise a random delay between half and all of BASE_DELAY_MS * 2^attempt
+     * @param attempt Attempts already made minus one (0 after the first failure)
+     * @param response Failed response, or null after an I/O error
+     * @return Delay in ms, or -1 if the failure must not be retried
+     */
+    public static long retryDelay(int attempt, @Nullable Response response) {
+        if (attempt >= MAX_RETRIES || (response != null && !isRetryable(response.code()))) {
+            return -1;
+        }
+        long retryAfter = response != null ? retryAfter(response) : -1;
+        if (retryAfter >= 0) {
+            return retryAfter <= MAX_DELAY_MS ? retryAfter : -1;
+        }
+        long ceiling = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << attempt);
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    /**
+     * @return True if the circuit is open and requests fail fast
+     */
+    public synchronized boolean isOpen() {
+        return clock.getAsLong() < openUntil;
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Parse Retry-After as delta-seconds or an HTTP date
+     * @return Delay in ms, or -1 if absent or unparsable
+     */
+    private static long retryAfter(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate("Retry-After");
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : -1;
+        }
+    }
+
+    /**
+     * Let a request through, or fail fast while the circuit is open
+     * Once the cooldown is over only one trial request passes at a time
+     */
+    @VisibleForTesting
+    synchronized void acquire() throws CircuitOpenException {
+        long now = clock.getAsLong();
+        if (now < openUntil) {
+            throw new CircuitOpenException(openUntil - now);
+        }
+        if (consecutiveFailures >= FAILURE_THRESHOLD) {
+            if (trialInFlight) {
+                // The trial decides; if it fails the circuit stays open at least this long
+                throw new CircuitOpenException(cooldownMs);
+            }
+            trialInFlight = true;
+        }
+    }
+
+    private synchronized void release() {
+        trialInFlight = false;
+    }
+
+    @VisibleForTesting
+    synchronized void onSuccess() {
+        if (consecutiveFailures >= FAILURE_THRESHOLD) {
+            Log.d(TAG, "Circuit closed");
+        }
+        consecutiveFailures = 0;
+        cooldownMs = MIN_COOLDOWN_MS;
+        trialInFlight = false;
+    }
+
+    /**
+     * @param retryAfterMs Server-requested wait, or -1
+     */
+    @VisibleForTesting
+    synchronized void onFailure(long retryAfterMs) {
+        consecutiveFailures++;
+        boolean trialFailed = trialInFlight;
+        trialInFlight = false;
+        if (consecutiveFailures < FAILURE_THRESHOLD && retryAfterMs <= MAX_DELAY_MS) {
+            return;
+        }
+
+        if (trialFailed) {
+            cooldownMs = Math.min(MAX_COOLDOWN_MS, cooldownMs * 2);
+        }
+        // A server asking for a longer wait is honoured only up to the longest cooldown
+        long cooldown = Math.max(cooldownMs, Math.min(retryAfterMs, MAX_COOLDOWN_MS));
+        openUntil = clock.getAsLong() + cooldown;
+        consecutiveFailures = Math.max(consecutiveFailures, FAILURE_THRESHOLD);
+        Log.d(TAG, "Circuit open for " + cooldown + " ms");
+    }
+}
@@ -0,0 +1,230 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.ArticleIdentity;
+import com.nmims.bigmanting.utils.LongHashSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory index of saved articles for synchronous "already saved" checks
+ * Holds the 64-bit identity key of every saved article in a LongHashSet,
+ * kept in sync by SavedArticleSync and persisted to a small file so the deck can badge cards before the
+ * listener's first snapshot arrives
+ * Lookups never touch Firestore
+ */
+public class SavedArticleIndex {
+
+    private static final String TAG = "SavedArticleIndex";
+    private static final String FILE_NAME = "saved_article_index.bin";
+    private static final int FILE_VERSION = 1;
+    private static final long PERSIST_DELAY_MS = 2000;
+
+    private static SavedArticleIndex instance;
+
+    private final File file;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable persistRunnable = this::persist;
+
+    // Guarded by this; read on the main thread during bind, loaded on the disk thread
+    private final LongHashSet keys = new LongHashSet();
+    private boolean synced;
+
+    private OnIndexChangedListener changeListener;
+
+    private SavedArticleIndex(Context context) {
+        this.file = new File(context.getFilesDir(), FILE_NAME);
+        diskExecutor.execute(this::load);
+    }
+
+    /**
+     * Get singleton instance of SavedArticleIndex
+     * @param context Any context
+     * @return SavedArticleIndex instance
+     */
+    public static synchronized SavedArticleIndex getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new SavedArticleIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether an article is saved, without any I/O
+     */
+    public boolean contains(@NonNull ArticleModel article) {
+        return contains(ArticleIdentity.key(article));
+    }
+
+    public synchronized boolean contains(long key) {
+        return keys.contains(key);
+    }
+
+    /**
+     * Mark an article as saved before its write is confirmed
+     */
+    public void add(@NonNull ArticleModel article) {
+        boolean changed;
+        synchronized (this) {
+            changed = keys.add(ArticleIdentity.key(article));
+        }
+        if (changed) {
+            onChanged();
+        }
+    }
+
+    /**
+     * Mark an article as no longer saved
+     */
+    public void remove(@NonNull ArticleModel article) {
+        boolean changed;
+        synchronized (this) {
+            changed = keys.remove(ArticleIdentity.key(article));
+        }
+        if (changed) {
+            onChanged();
+        }
+    }
+
+    /**
+     * Apply a snapshot from SavedArticleSync; runs on its background thread
+     * @param upserted Articles added or modified
+     * @param removedKeys Keys of deleted articles
+     * @param complete True when upserted holds the whole collection
+     */
+    void applyChanges(List<ArticleModel> upserted, long[] removedKeys, boolean complete) {
+        synchronized (this) {
+            if (complete) {
+                keys.clear();
+                synced = true;
+            }
+            for (ArticleModel article : upserted) {
+                keys.add(ArticleIdentity.key(article));
+            }
+            for (long key : removedKeys) {
+                keys.remove(key);
+            }
+        }
+        Log.d(TAG, "Synced: +" + upserted.size() + " -" + removedKeys.length
+                + (complete ? " (full)" : ""));
+        mainHandler.post(this::onChanged);
+    }
+
+    /**
+     * Forget all keys and delete the persisted index (logout)
+     */
+    public void clear() {
+        mainHandler.removeCallbacks(persistRunnable);
+        synchronized (this) {
+            keys.clear();
+            synced = false;
+        }
+        diskExecutor.execute(() -> {
+            if (file.exists() && !file.delete()) {
+                Log.e(TAG, "Could not delete " + file);
+            }
+        });
+    }
+
+    /**
+     * Get notified on the main thread when saved state may have changed
+     */
+    public void setOnIndexChangedListener(@Nullable OnIndexChangedListener listener) {
+        this.changeListener = listener;
+    }
+
+    private void onChanged() {
+        mainHandler.removeCallbacks(persistRunnable);
+        mainHandler.postDelayed(persistRunnable, PERSIST_DELAY_MS);
+        if (changeListener != null) {
+            changeListener.onIndexChanged();
+        }
+    }
+
+    private void persist() {
+        long[] snapshot;
+        synchronized (this) {
+            snapshot = keys.toArray();
+        }
+        diskExecutor.execute(() -> write(snapshot));
+    }
+
+    /**
+     * Write to a temp file and rename, so a crash never leaves a torn index
+     */
+    private void write(long[] snapshot) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FILE_VERSION);
+            out.writeInt(snapshot.length);
+            for (long key : snapshot) {
+                out.writeLong(key);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing index", e);
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.e(TAG, "Could not replace " + file);
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            long[] stored = new long[count];
+            for (int i = 0; i < count; i++) {
+                stored[i] = in.readLong();
+            }
+            synchronized (this) {
+                // A full snapshot from Firestore is newer than the file
+                if (synced) {
+                    return;
+                }
+                for (long key : stored) {
+                    keys.add(key);
+                }
+            }
+            Log.d(TAG, "Loaded " + count + " saved keys");
+            mainHandler.post(() -> {
+                if (changeListener != null) {
+                    changeListener.onIndexChanged();
+                }
+            });
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading index", e);
+        }
+    }
+
+    // Callback interface
+    public interface OnIndexChangedListener {
+        void onIndexChanged();
+    }
+}
@@ -0,0 +1,117 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.ListenerRegistration;
+import com.nmims.bigmanting.models.ArticleModel;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The one snapshot listener on the saved collection
+ * Each snapshot is decoded once on a background thread and handed to both
+ * SavedArticleIndex (keys for "Saved" badges) and SavedSearchIndex (search)
+ * Every screen that shows saved state calls start() when created and stop()
+ * when destroyed; the listener runs while at least one screen holds it
+ * Must be used from the main thread
+ */
+public class SavedArticleSync {
+
+    private static final String TAG = "SavedArticleSync";
+
+    private static SavedArticleSync instance;
+
+    private final SavedArticleIndex savedIndex;
+    private final SavedSearchIndex searchIndex;
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+
+    private ListenerRegistration registration;
+    private int holders;
+    // Bumped whenever the listener is removed, so snapshots already queued are dropped
+    private volatile int generation;
+
+    private SavedArticleSync(Context context) {
+        this.savedIndex = SavedArticleIndex.getInstance(context);
+        this.searchIndex = SavedSearchIndex.getInstance(context);
+    }
+
+    /**
+     * Get singleton instance of SavedArticleSync
+     * @param context Any context
+     * @return SavedArticleSync instance
+     */
+    public static synchronized SavedArticleSync getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new SavedArticleSync(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Hold the listener, starting it if no other screen does
+     * @param firestoreHelper Helper for the signed-in user
+     */
+    public void start(@NonNull FirestoreHelper firestoreHelper) {
+        holders++;
+        searchIndex.setFirestoreHelper(firestoreHelper);
+        if (registration != null) {
+            return;
+        }
+
+        int listenerGeneration = generation;
+        registration = firestoreHelper.listenToSavedArticleChanges(decodeExecutor,
+                new FirestoreHelper.SavedChangesCallback() {
+            @Override
+            public void onChanges(List<ArticleModel> upserted, List<String> removedIds,
+                                  long[] removedKeys, boolean complete) {
+                if (generation != listenerGeneration) {
+                    return;
+                }
+                // Keys first: the search index strips article bodies as it writes
+                savedIndex.applyChanges(upserted, removedKeys, complete);
+                searchIndex.applyChanges(upserted, removedIds, complete);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                // Both indexes keep serving their last state
+                Log.e(TAG, "Sync error: " + error);
+            }
+        });
+    }
+
+    /**
+     * Release the listener; it stops once no screen holds it
+     */
+    public void stop() {
+        if (holders == 0) {
+            return;
+        }
+        if (--holders == 0) {
+            removeListener();
+        }
+    }
+
+    /**
+     * Stop listening and forget everything indexed (logout)
+     */
+    public void clear() {
+        holders = 0;
+        removeListener();
+        savedIndex.clear();
+        searchIndex.clear();
+    }
+
+    private void removeListener() {
+        generation++;
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.nmims.bigmanting.models.ArticleModel;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Local full-text index over saved articles (SQLite FTS4)
+ * Kept in sync by SavedArticleSync, whose snapshots are written on a
+ * background thread; unchanged articles are
+ * skipped, so only new, edited and deleted saves touch the index
+ * Queries match word prefixes in title, description, content and source
+ * name and are ranked with per-column weights, without any Firestore read
+ * Article bodies are not part of the saved documents; a body is loaded from
+ * its content document only when the article is opened, and kept only in
+ * the FTS table, never in article_json
+ * Tables: saved_articles(id, article_id, saved_timestamp, article_json)
+ *         saved_fts(title, description, content, source), docid = saved_articles.id
+ */
+public class SavedSearchIndex extends SQLiteOpenHelper {
+
+    private static final String TAG = "SavedSearchIndex";
+    private static final String DATABASE_NAME = "saved_search.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_ARTICLES = "saved_articles";
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_ARTICLE_ID = "article_id";
+    private static final String COLUMN_SAVED_TIMESTAMP = "saved_timestamp";
+    private static final String COLUMN_ARTICLE_JSON = "article_json";
+
+    private static final String TABLE_FTS = "saved_fts";
+    private static final String COLUMN_TITLE = "title";
+    private static final String COLUMN_DESCRIPTION = "description";
+    private static final String COLUMN_CONTENT = "content";
+    private static final String COLUMN_SOURCE = "source";
+
+    // Ranking weight per FTS column, in declaration order
+    private static final float[] COLUMN_WEIGHTS = {4f, 2f, 1f, 3f};
+
+    // NewsAPI truncates content with a "[+1234 chars]" marker
+    private static final Pattern TRUNCATION_MARKER = Pattern.compile("\\s*\\[\\+\\d+ chars]\\s*$");
+
+    private static SavedSearchIndex instance;
+
+    private final Gson gson = new Gson();
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService queryExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Set by SavedArticleSync, read on the write thread
+    private volatile FirestoreHelper firestoreHelper;
+    // Articles whose body was already requested in this process
+    private final Set<String> contentRequested = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private SavedSearchIndex(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // Lets searches read while the listener is writing
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    /**
+     * Get singleton instance of SavedSearchIndex
+     * @param context Any context
+     * @return SavedSearchIndex instance
+     */
+    public static synchronized SavedSearchIndex getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new SavedSearchIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ARTICLES + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY, "
+                + COLUMN_ARTICLE_ID + " TEXT NOT NULL UNIQUE, "
+                + COLUMN_SAVED_TIMESTAMP + " INTEGER NOT NULL, "
+                + COLUMN_ARTICLE_JSON + " TEXT NOT NULL)");
+        db.execSQL("CREATE VIRTUAL TABLE " + TABLE_FTS + " USING fts4("
+                + COLUMN_TITLE + ", "
+                + COLUMN_DESCRIPTION + ", "
+                + COLUMN_CONTENT + ", "
+                + COLUMN_SOURCE + ", "
+                + "tokenize=unicode61)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // The index is rebuilt from Firestore by the next full snapshot
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_FTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARTICLES);
+        onCreate(db);
+    }
+
+    /**
+     * Helper used to load article bodies, see loadContent()
+     */
+    void setFirestoreHelper(@NonNull FirestoreHelper firestoreHelper) {
+        this.firestoreHelper = firestoreHelper;
+    }
+
+    /**
+     * Index a snapshot from SavedArticleSync; any thread
+     */
+    void applyChanges(List<ArticleModel> upserted, List<String> removedIds, boolean complete) {
+        writeExecutor.execute(() -> writeChanges(upserted, removedIds, complete));
+    }
+
+    /**
+     * Forget every indexed article (logout)
+     */
+    public void clear() {
+        firestoreHelper = null;
+        contentRequested.clear();
+        writeExecutor.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete(TABLE_FTS, null, null);
+                db.delete(TABLE_ARTICLES, null, null);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    /**
+     * Search saved articles
+     * Every word of the query must match the start of a word in the article
+     * @param query Text typed by the user
+     * @param limit Maximum number of results
+     * @param callback Callback invoked on the main thread, best matches first
+     */
+    public void search(@NonNull String query, int limit, @NonNull SearchCallback callback) {
+        String match = toMatchExpression(query);
+        if (match.isEmpty()) {
+            callback.onResults(query, new ArrayList<>());
+            return;
+        }
+        queryExecutor.execute(() -> {
+            long start = System.nanoTime();
+            List<ArticleModel> results = searchBlocking(match, limit);
+            // The query is the user's own text, so it is not logged
+            Log.d(TAG, "Search: " + results.size() + " results in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            mainHandler.post(() -> callback.onResults(query, results));
+        });
+    }
+
+    /**
+     * Turn user input into an FTS MATCH expression of ANDed prefix terms
+     * Only letters and digits are kept, so the expression cannot be malformed
+     */
+    private static String toMatchExpression(String query) {
+        StringBuilder builder = new StringBuilder();
+        String lower = query.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (builder.length() > 0) {
+                    builder.append(' ');
+                }
+                builder.append(lower, start, i).append('*');
+                start = -1;
+            }
+        }
+        return builder.toString();
+    }
+
+    private List<ArticleModel> searchBlocking(String match, int limit) {
+        SQLiteDatabase db = getReadableDatabase();
+
+        // Rank on docids and match statistics only; decode JSON just for the top hits
+        List<Hit> hits = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("SELECT f.docid, a." + COLUMN_SAVED_TIMESTAMP
+                + ", matchinfo(" + TABLE_FTS + ", 'pcx') FROM " + TABLE_FTS + " f JOIN "
+                + TABLE_ARTICLES + " a ON a." + COLUMN_ID + " = f.docid WHERE "
+                + TABLE_FTS + " MATCH ?", new String[]{match})) {
+            while (cursor.moveToNext()) {
+                hits.add(new Hit(cursor.getLong(0), cursor.getLong(1), score(cursor.getBlob(2))));
+            }
+        }
+
+        // Best score first, most recently saved first among equals
+        Collections.sort(hits, (a, b) -> {
+            int byScore = Float.compare(b.score, a.score);
+            return byScore != 0 ? byScore : Long.compare(b.savedTimestamp, a.savedTimestamp);
+        });
+
+        List<ArticleModel> results = new ArrayList<>();
+        for (int i = 0; i < hits.size() && results.size() < limit; i++) {
+            ArticleModel article = loadArticle(db, hits.get(i).id);
+            if (article != null) {
+                results.add(article);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Weighted share of each phrase's hits that fall in this row
+     * matchinfo 'pcx' = phrase count, column count, then per phrase and column:
+     * hits in this row, hits in all rows, rows with a hit
+     */
+    private static float score(byte[] matchinfo) {
+        ByteBuffer buffer = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        float score = 0f;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns && column < COLUMN_WEIGHTS.length; column++) {
+                int offset = 4 * (2 + 3 * (phrase * columns + column));
+                int hitsInRow = buffer.getInt(offset);
+                int hitsInAllRows = buffer.getInt(offset + 4);
+                if (hitsInRow > 0 && hitsInAllRows > 0) {
+                    score += COLUMN_WEIGHTS[column] * hitsInRow / (float) hitsInAllRows;
+                }
+            }
+        }
+        return score;
+    }
+
+    private ArticleModel loadArticle(SQLiteDatabase db, long id) {
+        try (Cursor cursor = db.query(TABLE_ARTICLES, new String[]{COLUMN_ARTICLE_JSON},
+                COLUMN_ID + " = ?", new String[]{String.valueOf(id)}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return gson.fromJson(cursor.getString(0), ArticleModel.class);
+        } catch (JsonParseException e) {
+            Log.e(TAG, "Corrupt indexed article " + id, e);
+            return null;
+        }
+    }
+
+    /**
+     * Apply listener changes in one transaction; runs on the write thread
+     */
+    private void writeChanges(List<ArticleModel> upserted, List<String> removedIds, boolean complete) {
+        SQLiteDatabase db = getWritableDatabase();
+        Map<String, Long> indexed = complete ? readIndexedTimestamps(db) : null;
+        int written = 0;
+
+        db.beginTransaction();
+        try {
+            for (ArticleModel article : upserted) {
+                Long timestamp = indexed != null ? indexed.get(article.getArticleId()) : null;
+                if (timestamp != null && timestamp == article.getSavedTimestamp()) {
+                    continue; // already indexed and unchanged
+                }
+                upsert(db, article);
+                written++;
+            }
+            for (String articleId : removedIds) {
+                remove(db, articleId);
+            }
+
+            // A full snapshot is the whole collection; drop anything it does not contain
+            if (indexed != null) {
+                Set<String> current = new HashSet<>();
+                for (ArticleModel article : upserted) {
+                    current.add(article.getArticleId());
+                }
+                for (String articleId : indexed.keySet()) {
+                    if (!current.contains(articleId)) {
+                        remove(db, articleId);
+                    }
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        Log.d(TAG, "Indexed " + written + " articles, removed " + removedIds.size()
+                + (complete ? " (full sync of " + upserted.size() + ")" : ""));
+    }
+
+    /**
+     * Make the body of a saved article searchable, e.g. once the user opens it
+     * At most one read per article and process, and none if already indexed
+     * @param articleId Firestore document ID of the saved article
+     */
+    public void loadContent(@NonNull String articleId) {
+        if (!contentRequested.add(articleId)) {
+            return;
+        }
+        writeExecutor.execute(() -> {
+            FirestoreHelper helper = firestoreHelper;
+            if (helper == null || indexedContent(getReadableDatabase(), articleId) != null) {
+                return;
+            }
+            fetchContent(helper, articleId);
+        });
+    }
+
+    private void fetchContent(FirestoreHelper helper, String articleId) {
+        helper.loadArticleContent(articleId, new FirestoreHelper.ContentCallback() {
+            @Override
+            public void onContent(String content) {
+                if (content != null) {
+                    writeExecutor.execute(() -> setContent(articleId, content));
+                }
+            }
+
+            @Override
+            public void onFailure(String error) {
+                // Searchable by title, description and source; retried on the next open
+                contentRequested.remove(articleId);
+                Log.e(TAG, "Content load failed for " + articleId + ": " + error);
+            }
+        });
+    }
+
+    private void setContent(String articleId, String content) {
+        getWritableDatabase().execSQL("UPDATE " + TABLE_FTS + " SET " + COLUMN_CONTENT + " = ? "
+                        + "WHERE docid = (SELECT " + COLUMN_ID + " FROM " + TABLE_ARTICLES
+                        + " WHERE " + COLUMN_ARTICLE_ID + " = ?)",
+                new Object[]{stripTruncation(content), articleId});
+    }
+
+    private static String stripTruncation(String content) {
+        return TRUNCATION_MARKER.matcher(content).replaceFirst("");
+    }
+
+    private static Map<String, Long> readIndexedTimestamps(SQLiteDatabase db) {
+        Map<String, Long> timestamps = new HashMap<>();
+        try (Cursor cursor = db.query(TABLE_ARTICLES,
+                new String[]{COLUMN_ARTICLE_ID, COLUMN_SAVED_TIMESTAMP},
+                null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                timestamps.put(cursor.getString(0), cursor.getLong(1));
+            }
+        }
+        return timestamps;
+    }
+
+    private void upsert(SQLiteDatabase db, ArticleModel article) {
+        // Inline content of older documents, else whatever was indexed before
+        String content = article.getContent() != null
+                ? stripTruncation(article.getContent())
+                : indexedContent(db, article.getArticleId());
+        article.setContent(null);
+
+        remove(db, article.getArticleId());
+
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_ARTICLE_ID, article.getArticleId());
+        values.put(COLUMN_SAVED_TIMESTAMP, article.getSavedTimestamp());
+        values.put(COLUMN_ARTICLE_JSON, gson.toJson(article));
+        long id = db.insert(TABLE_ARTICLES, null, values);
+        if (id == -1) {
+            return;
+        }
+
+        ContentValues text = new ContentValues();
+        text.put("docid", id);
+        text.put(COLUMN_TITLE, article.getTitle());
+        text.put(COLUMN_DESCRIPTION, article.getDescription());
+        text.put(COLUMN_CONTENT, content);
+        text.put(COLUMN_SOURCE, article.getSource() != null ? article.getSource().getName() : null);
+        db.insert(TABLE_FTS, null, text);
+    }
+
+    private static String indexedContent(SQLiteDatabase db, String articleId) {
+        try (Cursor cursor = db.rawQuery("SELECT f." + COLUMN_CONTENT + " FROM " + TABLE_FTS + " f JOIN "
+                + TABLE_ARTICLES + " a ON a." + COLUMN_ID + " = f.docid WHERE a."
+                + COLUMN_ARTICLE_ID + " = ?", new String[]{articleId})) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    private static void remove(SQLiteDatabase db, String articleId) {
+        try (Cursor cursor = db.query(TABLE_ARTICLES, new String[]{COLUMN_ID},
+                COLUMN_ARTICLE_ID + " = ?", new String[]{articleId}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return;
+            }
+            String id = String.valueOf(cursor.getLong(0));
+            db.delete(TABLE_FTS, "docid = ?", new String[]{id});
+            db.delete(TABLE_ARTICLES, COLUMN_ID + " = ?", new String[]{id});
+        }
+    }
+
+    /**
+     * A matching row before its article is decoded
+     */
+    private static class Hit {
+        final long id;
+        final long savedTimestamp;
+        final float score;
+
+        Hit(long id, long savedTimestamp, float score) {
+            this.id = id;
+            this.savedTimestamp = savedTimestamp;
+            this.score = score;
+        }
+    }
+
+    // Callback interface
+    public interface SearchCallback {
+        /**
+         * @param query Query the results belong to, to drop stale responses
+         * @param articles Matching articles, best first
+         */
+        void onResults(String query, List<ArticleModel> articles);
+    }
+}
@@ -0,0 +1,52 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.nmims.bigmanting.utils.SharedPrefsHelper;
+
+/**
+ * Logout shared by every screen that offers it
+ * Commits buffered saves and deletes while the user is still signed in, then
+ * signs out and clears preferences and all per-user local history
+ */
+public final class SessionCleaner {
+
+    // Longest wait for buffered saves to commit before signing out
+    private static final long FLUSH_TIMEOUT_MS = 3000;
+
+    private SessionCleaner() {
+    }
+
+    /**
+     * Sign the current user out; must be called from the main thread
+     * @param context Any context
+     * @param onLoggedOut Runs on the main thread once local state is cleared,
+     *                    e.g. to open the login screen
+     */
+    public static void logout(@NonNull Context context, @NonNull Runnable onLoggedOut) {
+        Context appContext = context.getApplicationContext();
+        boolean[] done = {false};
+        Runnable clear = () -> {
+            if (done[0]) {
+                return;
+            }
+            done[0] = true;
+            FirebaseAuth.getInstance().signOut();
+            new SharedPrefsHelper(appContext).clearAll();
+            SavedArticleSync.getInstance(appContext).clear();
+            SwipeLog.getInstance(appContext).clear();
+            ArticleRanker.getInstance(appContext).clear();
+            onLoggedOut.run();
+        };
+
+        FirestoreWriteBatcher.getInstance().flush(clear);
+        // Offline, commits only complete once the server is reachable; they stay
+        // queued in Firestore for this user, so don't block the logout on them
+        new Handler(Looper.getMainLooper()).postDelayed(clear, FLUSH_TIMEOUT_MS);
+    }
+}
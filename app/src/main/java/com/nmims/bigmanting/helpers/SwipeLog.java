@@ -0,0 +1,447 @@
+package com.nmims.bigmanting.helpers;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.ArticleIdentity;
+import com.nmims.bigmanting.utils.LongHashSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Local append-only log of card swipes
+ * Each swipe is one fixed-size binary record (article key, timestamp,
+ * dwell time, action) appended to a file in filesDir, so recording costs
+ * a 21-byte write and no database transaction
+ * Events are mirrored in primitive arrays for queries by the feed pipeline
+ * When the log grows past MAX_EVENTS it is compacted to the newest event
+ * per article. Loading happens on a background thread and never blocks startup;
+ * code that filters by swipe history waits for it with whenLoaded()
+ * File: header(magic, version) then records(key, timestamp, dwellMs, action)
+ */
+public class SwipeLog {
+
+    private static final String TAG = "SwipeLog";
+    private static final String FILE_NAME = "swipe_log.bin";
+    private static final int FILE_MAGIC = 0x53574c47;
+    private static final int FILE_VERSION = 1;
+    @VisibleForTesting
+    static final int HEADER_BYTES = 8;
+    @VisibleForTesting
+    static final int RECORD_BYTES = 8 + 8 + 4 + 1;
+
+    // Compact once this many events are logged, keeping at most RETAINED_EVENTS
+    @VisibleForTesting
+    static final int MAX_EVENTS = 50_000;
+    @VisibleForTesting
+    static final int RETAINED_EVENTS = 20_000;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static SwipeLog instance;
+
+    /**
+     * What the user did with a card; stored as its ordinal
+     */
+    public enum Action {
+        SKIP,
+        SAVE
+    }
+
+    private final File file;
+    private final Executor diskExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by this; events [0, persistedCount) are on disk
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int[] dwells = new int[INITIAL_CAPACITY];
+    private byte[] actions = new byte[INITIAL_CAPACITY];
+    private int count;
+    private int persistedCount;
+    private final LongHashSet swipedKeys = new LongHashSet(INITIAL_CAPACITY);
+    private boolean loaded;
+    private final List<Runnable> loadWaiters = new ArrayList<>();
+
+    private SwipeLog(Context context) {
+        this(new File(context.getFilesDir(), FILE_NAME), Executors.newSingleThreadExecutor());
+    }
+
+    /**
+     * @param file Log file
+     * @param diskExecutor Single-threaded executor for all file access
+     */
+    @VisibleForTesting
+    SwipeLog(@NonNull File file, @NonNull Executor diskExecutor) {
+        this.file = file;
+        this.diskExecutor = diskExecutor;
+        diskExecutor.execute(() -> {
+            load();
+            onLoaded();
+        });
+    }
+
+    /**
+     * Get singleton instance of SwipeLog
+     * @param context Any context
+     * @return SwipeLog instance
+     */
+    public static synchronized SwipeLog getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new SwipeLog(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Append a swipe
+     * @param article Swiped article
+     * @param action Skip or save
+     * @param dwellMs Time the card was on top before the swipe
+     */
+    public void record(@NonNull ArticleModel article, @NonNull Action action, long dwellMs) {
+        int dwell = (int) Math.max(0, Math.min(dwellMs, Integer.MAX_VALUE));
+        synchronized (this) {
+            append(ArticleIdentity.key(article), System.currentTimeMillis(), dwell, (byte) action.ordinal());
+        }
+        diskExecutor.execute(this::flush);
+    }
+
+    /**
+     * Run an action on the main thread once the stored swipes are in memory,
+     * right away if they already are; until then hasSwiped() only knows this session
+     * @param action Action to run, e.g. merging a feed into the deck
+     */
+    public void whenLoaded(@NonNull Runnable action) {
+        synchronized (this) {
+            if (!loaded) {
+                loadWaiters.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    private void onLoaded() {
+        List<Runnable> waiters;
+        synchronized (this) {
+            loaded = true;
+            waiters = new ArrayList<>(loadWaiters);
+            loadWaiters.clear();
+        }
+        for (Runnable waiter : waiters) {
+            mainHandler.post(waiter);
+        }
+    }
+
+    /**
+     * Check whether an article was ever swiped (kept until compaction drops it)
+     * @param key ArticleIdentity key
+     */
+    public synchronized boolean hasSwiped(long key) {
+        return swipedKeys.contains(key);
+    }
+
+    /**
+     * Number of events currently held
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Visit every event, oldest first
+     * The log is locked while visiting, so keep the visitor cheap
+     */
+    public synchronized void forEachEvent(@NonNull EventVisitor visitor) {
+        Action[] values = Action.values();
+        for (int i = 0; i < count; i++) {
+            visitor.onEvent(keys[i], values[actions[i]], timestamps[i], dwells[i]);
+        }
+    }
+
+    /**
+     * Forget all swipes and delete the file (logout)
+     */
+    public void clear() {
+        // Runs on the disk thread so it cannot interleave with a flush or compaction
+        diskExecutor.execute(() -> {
+            synchronized (this) {
+                count = 0;
+                persistedCount = 0;
+                swipedKeys.clear();
+            }
+            if (file.exists() && !file.delete()) {
+                Log.e(TAG, "Could not delete " + file);
+            }
+        });
+    }
+
+    // Must hold the lock
+    private void append(long key, long timestamp, int dwell, byte action) {
+        if (count == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            dwells = Arrays.copyOf(dwells, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+        }
+        keys[count] = key;
+        timestamps[count] = timestamp;
+        dwells[count] = dwell;
+        actions[count] = action;
+        count++;
+        swipedKeys.add(key);
+    }
+
+    /**
+     * Write events not yet on disk; runs on the disk thread
+     */
+    private void flush() {
+        int from;
+        int to;
+        long[] pendingKeys;
+        long[] pendingTimestamps;
+        int[] pendingDwells;
+        byte[] pendingActions;
+        synchronized (this) {
+            from = persistedCount;
+            to = count;
+            if (from >= to) {
+                return;
+            }
+            pendingKeys = Arrays.copyOfRange(keys, from, to);
+            pendingTimestamps = Arrays.copyOfRange(timestamps, from, to);
+            pendingDwells = Arrays.copyOfRange(dwells, from, to);
+            pendingActions = Arrays.copyOfRange(actions, from, to);
+        }
+
+        boolean newFile = !file.exists() || file.length() < HEADER_BYTES;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, !newFile)))) {
+            if (newFile) {
+                writeHeader(out);
+            }
+            writeRecords(out, pendingKeys, pendingTimestamps, pendingDwells, pendingActions,
+                    pendingKeys.length);
+        } catch (IOException e) {
+            // Events stay in memory and are retried with the next flush
+            Log.e(TAG, "Error appending to swipe log", e);
+            return;
+        }
+
+        synchronized (this) {
+            persistedCount = to;
+        }
+        if (to > MAX_EVENTS) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the log keeping only the newest event per article, at most
+     * RETAINED_EVENTS of them; runs on the disk thread
+     */
+    private void compact() {
+        int snapshotCount;
+        long[] keptKeys;
+        long[] keptTimestamps;
+        int[] keptDwells;
+        byte[] keptActions;
+        int kept = 0;
+        synchronized (this) {
+            snapshotCount = count;
+            keptKeys = new long[Math.min(snapshotCount, RETAINED_EVENTS)];
+            keptTimestamps = new long[keptKeys.length];
+            keptDwells = new int[keptKeys.length];
+            keptActions = new byte[keptKeys.length];
+
+            // Walk newest to oldest so the first event seen per key is the latest
+            LongHashSet seen = new LongHashSet(keptKeys.length);
+            for (int i = snapshotCount - 1; i >= 0 && kept < keptKeys.length; i--) {
+                if (seen.add(keys[i])) {
+                    keptKeys[kept] = keys[i];
+                    keptTimestamps[kept] = timestamps[i];
+                    keptDwells[kept] = dwells[i];
+                    keptActions[kept] = actions[i];
+                    kept++;
+                }
+            }
+        }
+        reverse(keptKeys, keptTimestamps, keptDwells, keptActions, kept);
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)))) {
+            writeHeader(out);
+            writeRecords(out, keptKeys, keptTimestamps, keptDwells, keptActions, kept);
+        } catch (IOException e) {
+            Log.e(TAG, "Error compacting swipe log", e);
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.e(TAG, "Could not replace " + file);
+            return;
+        }
+
+        synchronized (this) {
+            // Keep events recorded while the file was being written; the next flush appends them
+            int tail = count - snapshotCount;
+            long[] tailKeys = Arrays.copyOfRange(keys, snapshotCount, count);
+            long[] tailTimestamps = Arrays.copyOfRange(timestamps, snapshotCount, count);
+            int[] tailDwells = Arrays.copyOfRange(dwells, snapshotCount, count);
+            byte[] tailActions = Arrays.copyOfRange(actions, snapshotCount, count);
+
+            int capacity = Math.max(INITIAL_CAPACITY, (kept + tail) * 2);
+            keys = Arrays.copyOf(keptKeys, capacity);
+            timestamps = Arrays.copyOf(keptTimestamps, capacity);
+            dwells = Arrays.copyOf(keptDwells, capacity);
+            actions = Arrays.copyOf(keptActions, capacity);
+            count = kept;
+            persistedCount = kept;
+            swipedKeys.clear();
+            for (int i = 0; i < kept; i++) {
+                swipedKeys.add(keys[i]);
+            }
+            for (int i = 0; i < tail; i++) {
+                append(tailKeys[i], tailTimestamps[i], tailDwells[i], tailActions[i]);
+            }
+        }
+        Log.d(TAG, "Compacted " + snapshotCount + " events to " + kept);
+        flush();
+    }
+
+    /**
+     * Read the log into memory; runs on the disk thread
+     * A record torn by a crash mid-append is cut off so later appends stay aligned
+     */
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        long length = file.length();
+        int records = (int) Math.max(0, (length - HEADER_BYTES) / RECORD_BYTES);
+        long[] loadedKeys = new long[records];
+        long[] loadedTimestamps = new long[records];
+        int[] loadedDwells = new int[records];
+        byte[] loadedActions = new byte[records];
+        int loaded = 0;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                Log.e(TAG, "Unknown swipe log format, starting over");
+                if (!file.delete()) {
+                    Log.e(TAG, "Could not delete " + file);
+                }
+                return;
+            }
+            int actionCount = Action.values().length;
+            for (; loaded < records; loaded++) {
+                loadedKeys[loaded] = in.readLong();
+                loadedTimestamps[loaded] = in.readLong();
+                loadedDwells[loaded] = in.readInt();
+                byte action = in.readByte();
+                loadedActions[loaded] = action >= 0 && action < actionCount ? action : 0;
+            }
+        } catch (EOFException e) {
+            Log.e(TAG, "Swipe log ended early after " + loaded + " events");
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading swipe log", e);
+            return;
+        }
+
+        long validLength = HEADER_BYTES + (long) loaded * RECORD_BYTES;
+        if (length > validLength) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            } catch (IOException e) {
+                Log.e(TAG, "Error truncating swipe log", e);
+            }
+        }
+
+        synchronized (this) {
+            // Swipes recorded before loading finished go after the stored ones
+            int pending = count;
+            long[] pendingKeys = Arrays.copyOf(keys, pending);
+            long[] pendingTimestamps = Arrays.copyOf(timestamps, pending);
+            int[] pendingDwells = Arrays.copyOf(dwells, pending);
+            byte[] pendingActions = Arrays.copyOf(actions, pending);
+
+            int capacity = Math.max(INITIAL_CAPACITY, (loaded + pending) * 2);
+            keys = Arrays.copyOf(loadedKeys, capacity);
+            timestamps = Arrays.copyOf(loadedTimestamps, capacity);
+            dwells = Arrays.copyOf(loadedDwells, capacity);
+            actions = Arrays.copyOf(loadedActions, capacity);
+            count = loaded;
+            persistedCount = loaded;
+            for (int i = 0; i < loaded; i++) {
+                swipedKeys.add(keys[i]);
+            }
+            for (int i = 0; i < pending; i++) {
+                append(pendingKeys[i], pendingTimestamps[i], pendingDwells[i], pendingActions[i]);
+            }
+        }
+        Log.d(TAG, "Loaded " + loaded + " swipe events");
+
+        if (loaded > MAX_EVENTS) {
+            compact();
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+    }
+
+    private static void writeRecords(DataOutputStream out, long[] keys, long[] timestamps,
+                                     int[] dwells, byte[] actions, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.writeLong(keys[i]);
+            out.writeLong(timestamps[i]);
+            out.writeInt(dwells[i]);
+            out.writeByte(actions[i]);
+        }
+    }
+
+    private static void reverse(long[] keys, long[] timestamps, int[] dwells, byte[] actions, int count) {
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            long timestamp = timestamps[i];
+            timestamps[i] = timestamps[j];
+            timestamps[j] = timestamp;
+            int dwell = dwells[i];
+            dwells[i] = dwells[j];
+            dwells[j] = dwell;
+            byte action = actions[i];
+            actions[i] = actions[j];
+            actions[j] = action;
+        }
+    }
+
+    // Callback interface
+    public interface EventVisitor {
+        void onEvent(long key, Action action, long timestamp, int dwellMs);
+    }
+}
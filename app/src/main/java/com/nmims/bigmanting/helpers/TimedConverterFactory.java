@@ -0,0 +1,79 @@
+package com.nmims.bigmanting.helpers;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * Converter.Factory wrapper that records response parse time into NetworkMetrics
+ * The endpoint name is taken from the @GET annotation of the service method,
+ * matching the path recorded by NetworkMetricsListener
+ */
+public class TimedConverterFactory extends Converter.Factory {
+
+    private final Converter.Factory delegate;
+
+    private TimedConverterFactory(Converter.Factory delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Wrap a converter factory
+     * @param delegate Factory doing the actual parsing
+     * @return Timed factory
+     */
+    public static TimedConverterFactory create(@NonNull Converter.Factory delegate) {
+        return new TimedConverterFactory(delegate);
+    }
+
+    @Nullable
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type,
+                                                            @NonNull Annotation[] annotations,
+                                                            @NonNull Retrofit retrofit) {
+        Converter<ResponseBody, ?> converter = delegate.responseBodyConverter(type, annotations, retrofit);
+        String endpoint = endpointOf(annotations);
+        if (converter == null || endpoint == null) {
+            return converter;
+        }
+
+        return body -> {
+            long start = SystemClock.elapsedRealtime();
+            try {
+                return converter.convert(body);
+            } finally {
+                NetworkMetrics.getInstance().record(endpoint, NetworkMetrics.Metric.PARSE,
+                        SystemClock.elapsedRealtime() - start);
+            }
+        };
+    }
+
+    @Nullable
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(@NonNull Type type,
+                                                          @NonNull Annotation[] parameterAnnotations,
+                                                          @NonNull Annotation[] methodAnnotations,
+                                                          @NonNull Retrofit retrofit) {
+        return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    }
+
+    @Nullable
+    private static String endpointOf(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                return ((GET) annotation).value();
+            }
+        }
+        return null;
+    }
+}
@@ -1,10 +1,9 @@
 package com.nmims.bigmanting.models;
 
 import com.google.firebase.firestore.Exclude;
+import com.nmims.bigmanting.utils.DateFormatter;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * POJO (Plain Old Java Object) model for News Articles
@@ -27,6 +26,12 @@ public class ArticleModel implements Serializable {
     private String articleId; // Document ID in Firestore
     private long savedTimestamp; // When the article was saved
 
+    // Derived from publishedAt on first use (0 = not parsed yet);
+    // transient so Gson and Serializable skip them
+    private transient long publishedAtMillis;
+    private transient String cachedDateLabel;
+    private transient long cachedDateMinute;
+
     // Empty constructor required for Firestore deserialization
     public ArticleModel() {
     }
@@ -91,6 +96,32 @@ public class ArticleModel implements Serializable {
 
     public void setPublishedAt(String publishedAt) {
         this.publishedAt = publishedAt;
+        this.publishedAtMillis = 0;
+        this.cachedDateLabel = null;
+    }
+
+    /**
+     * Publish time parsed once from publishedAt
+     * @return Epoch millis, or -1 if publishedAt is missing or unparsable
+     */
+    @Exclude
+    public long getPublishedAtMillis() {
+        if (publishedAtMillis == 0) {
+            publishedAtMillis = DateFormatter.parseEpochMillis(publishedAt);
+        }
+        return publishedAtMillis;
+    }
+
+    /**
+     * @return Date label cached by DateFormatter for this minute, or null
+     */
+    public String getCachedDateLabel(long minute) {
+        return cachedDateMinute == minute ? cachedDateLabel : null;
+    }
+
+    public void setCachedDateLabel(String label, long minute) {
+        this.cachedDateLabel = label;
+        this.cachedDateMinute = minute;
     }
 
     public String getAuthor() {
@@ -124,64 +155,4 @@ public class ArticleModel implements Serializable {
     public void setSavedTimestamp(long savedTimestamp) {
         this.savedTimestamp = savedTimestamp;
     }
-
-    /**
-     * Convert ArticleModel to Map for Firestore storage
-     * @return Map representation of the article
-     */
-    public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("title", title);
-        map.put("description", description);
-        map.put("content", content);
-        map.put("url", url);
-        map.put("urlToImage", urlToImage);
-        map.put("publishedAt", publishedAt);
-        map.put("author", author);
-        map.put("savedTimestamp", savedTimestamp);
-
-        if (source != null) {
-            Map<String, Object> sourceMap = new HashMap<>();
-            sourceMap.put("id", source.getId());
-            sourceMap.put("name", source.getName());
-            map.put("source", sourceMap);
-        }
-
-        return map;
-    }
-
-    /**
-     * Create ArticleModel from Firestore Map
-     * @param map Map from Firestore document
-     * @return ArticleModel instance
-     */
-    public static ArticleModel fromMap(Map<String, Object> map) {
-        ArticleModel article = new ArticleModel();
-        article.setTitle((String) map.get("title"));
-        article.setDescription((String) map.get("description"));
-        article.setContent((String) map.get("content"));
-        article.setUrl((String) map.get("url"));
-        article.setUrlToImage((String) map.get("urlToImage"));
-        article.setPublishedAt((String) map.get("publishedAt"));
-        article.setAuthor((String) map.get("author"));
-
-        Object timestamp = map.get("savedTimestamp");
-        if (timestamp instanceof Long) {
-            article.setSavedTimestamp((Long) timestamp);
-        }
-
-        // Parse source if exists
-        Object sourceObj = map.get("source");
-        if (sourceObj instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> sourceMap = (Map<String, Object>) sourceObj;
-            SourceModel source = new SourceModel(
-                    (String) sourceMap.get("id"),
-                    (String) sourceMap.get("name")
-            );
-            article.setSource(source);
-        }
-
-        return article;
-    }
 }
@@ -0,0 +1,59 @@
+package com.nmims.bigmanting.models;
+
+import androidx.annotation.NonNull;
+
+import com.nmims.bigmanting.utils.DateFormatter;
+
+/**
+ * Immutable, ready-to-bind content of one card
+ * Built off the main thread by CardStateMapper, so CardAdapter's bind is only
+ * field assignments: fallbacks and "By ..." prefixes are resolved here
+ * The relative date changes over time and is labelled at bind time from the
+ * article's cached timestamp (see DateFormatter.label)
+ */
+public final class CardViewState {
+
+    public final ArticleModel article;
+    public final String title;
+    public final String description;
+    public final String source;
+    // Null hides the author line
+    public final String author;
+    // Null shows the placeholder image
+    public final String imageUrl;
+
+    private CardViewState(ArticleModel article, String title, String description, String source,
+                          String author, String imageUrl) {
+        this.article = article;
+        this.title = title;
+        this.description = description;
+        this.source = source;
+        this.author = author;
+        this.imageUrl = imageUrl;
+    }
+
+    /**
+     * Resolve everything a card shows for an article
+     * @param article Article to show
+     * @param now Current time in epoch millis
+     * @return Card view state
+     */
+    @NonNull
+    public static CardViewState from(@NonNull ArticleModel article, long now) {
+        // Parse publishedAt and fill this minute's label cache here, off the main thread
+        DateFormatter.label(article, now);
+
+        String source = article.getSource() != null && article.getSource().getName() != null
+                ? article.getSource().getName() : "Unknown Source";
+        String author = article.getAuthor() != null && !article.getAuthor().isEmpty()
+                ? "By " + article.getAuthor() : null;
+        String imageUrl = article.getUrlToImage() != null && !article.getUrlToImage().isEmpty()
+                ? article.getUrlToImage() : null;
+        return new CardViewState(article,
+                article.getTitle() != null ? article.getTitle() : "No Title",
+                article.getDescription() != null ? article.getDescription() : "No description available",
+                source,
+                author,
+                imageUrl);
+    }
+}
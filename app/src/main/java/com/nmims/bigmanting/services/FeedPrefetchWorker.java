@@ -0,0 +1,163 @@
+package com.nmims.bigmanting.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.nmims.bigmanting.helpers.NetworkMetricsListener;
+import com.nmims.bigmanting.helpers.NewsRepository;
+import com.nmims.bigmanting.helpers.RetryPolicy;
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.Constants;
+import com.nmims.bigmanting.utils.SharedPrefsHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * WorkManager job that warms every category feed and its lead images
+ * Runs only on unmetered networks while charging, and stops once the
+ * daily request or byte budget (see Constants.PREFETCH_*) is used up
+ * Feeds go into the local article store, images into Glide's disk cache
+ * A failed category is skipped; while NewsAPI's circuit is open the run ends
+ * early and waits for the next period instead of rescheduling itself
+ */
+public class FeedPrefetchWorker extends Worker {
+
+    private static final String TAG = "FeedPrefetchWorker";
+    private static final String UNIQUE_WORK_NAME = "feed_prefetch";
+    private static final long IMAGE_TIMEOUT_SECONDS = 30;
+
+    public FeedPrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedule the periodic prefetch, keeping an already scheduled job
+     * @param context Any context
+     */
+    public static void schedule(@NonNull Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(FeedPrefetchWorker.class,
+                Constants.PREFETCH_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(UNIQUE_WORK_NAME,
+                ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        SharedPrefsHelper prefsHelper = new SharedPrefsHelper(context);
+        NewsRepository repository = NewsRepository.getInstance(context);
+
+        String apiKey = prefsHelper.getNewsApiKey();
+        if (apiKey.isEmpty()) {
+            apiKey = Constants.NEWS_API_KEY;
+        }
+
+        long day = TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis());
+
+        for (String category : Constants.CATEGORIES) {
+            if (isStopped() || !hasBudget(prefsHelper, day)) {
+                break;
+            }
+
+            List<ArticleModel> articles;
+            NetworkMetricsListener.Transfer transfer = new NetworkMetricsListener.Transfer();
+            try {
+                articles = repository.prefetchFeedBlocking(category, prefsHelper.getCountry(), apiKey, transfer);
+            } catch (RetryPolicy.CircuitOpenException e) {
+                // The periodic run will try again
+                Log.w(TAG, "NewsAPI unavailable, stopping prefetch: " + e.getMessage());
+                break;
+            } catch (IOException e) {
+                Log.e(TAG, "Prefetch failed for " + category, e);
+                continue;
+            } finally {
+                // Only what reached the network; responses from the HTTP cache cost nothing
+                prefsHelper.addPrefetchUsage(day, transfer.getRequests(), transfer.getBytes());
+            }
+
+            // Only the first cards' images; the rest load when the user gets there
+            int images = Math.min(articles.size(), Constants.PREFETCH_LEAD_IMAGES);
+            for (int i = 0; i < images; i++) {
+                if (isStopped() || !hasBudget(prefsHelper, day)) {
+                    break;
+                }
+                prefetchImage(context, prefsHelper, day, articles.get(i).getUrlToImage());
+            }
+            Log.d(TAG, "Prefetched " + articles.size() + " articles for " + category);
+        }
+        return Result.success();
+    }
+
+    private static boolean hasBudget(SharedPrefsHelper prefsHelper, long day) {
+        return prefsHelper.getPrefetchRequests(day) < Constants.PREFETCH_MAX_REQUESTS_PER_DAY
+                && prefsHelper.getPrefetchBytes(day) < Constants.PREFETCH_MAX_BYTES_PER_DAY;
+    }
+
+    /**
+     * Download an image into Glide's disk cache, charging the budget only if
+     * it was actually downloaded rather than already cached
+     */
+    private static void prefetchImage(Context context, SharedPrefsHelper prefsHelper, long day, String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        AtomicReference<DataSource> source = new AtomicReference<>();
+        try {
+            File file = Glide.with(context)
+                    .downloadOnly()
+                    .load(url)
+                    .listener(new RequestListener<File>() {
+                        @Override
+                        public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                                    @NonNull Target<File> target, boolean isFirstResource) {
+                            return false;
+                        }
+
+                        @Override
+                        public boolean onResourceReady(@NonNull File resource, @NonNull Object model,
+                                                       Target<File> target, @NonNull DataSource dataSource,
+                                                       boolean isFirstResource) {
+                            source.set(dataSource);
+                            return false;
+                        }
+                    })
+                    .submit()
+                    .get(IMAGE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (source.get() == DataSource.REMOTE) {
+                prefsHelper.addPrefetchUsage(day, 1, file != null ? file.length() : 0);
+            }
+        } catch (Exception e) {
+            // The request may have gone out before it failed
+            prefsHelper.addPrefetchUsage(day, 1, 0);
+            Log.w(TAG, "Image prefetch failed: " + url);
+        }
+    }
+}
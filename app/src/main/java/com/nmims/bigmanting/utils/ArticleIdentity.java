@@ -0,0 +1,201 @@
+package com.nmims.bigmanting.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nmims.bigmanting.models.ArticleModel;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Canonical identity of an article
+ * URLs are normalized (https, lower-case host without "www.", no fragment,
+ * no default port, no trailing slash, tracking parameters removed, remaining
+ * parameters sorted) and hashed to a stable 64-bit key
+ * The key backs Firestore document IDs and in-memory dedup sets, so the same
+ * story reached through different tracking links maps to one article
+ */
+public final class ArticleIdentity {
+
+    private static final String ID_PREFIX = "a_";
+    private static final String LEGACY_ID_PREFIX = "article_";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Query parameters that only identify the referrer, never the article
+    private static final String[] TRACKING_PARAMS = {
+            "fbclid", "gclid", "dclid", "msclkid", "mc_cid", "mc_eid", "igshid",
+            "ocid", "cmpid", "ref", "ref_src", "smid", "sr_share", "taid", "at_medium", "at_campaign"
+    };
+
+    private ArticleIdentity() {
+    }
+
+    /**
+     * Normalize an article URL so equivalent links compare equal
+     * @param url Raw URL from NewsAPI
+     * @return Normalized URL, the trimmed input if it cannot be parsed, or "" for null
+     */
+    @NonNull
+    public static String normalizeUrl(@Nullable String url) {
+        if (url == null) {
+            return "";
+        }
+        String trimmed = url.trim();
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+        if (uri.getHost() == null) {
+            return trimmed;
+        }
+
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+
+        StringBuilder builder = new StringBuilder("https://").append(host);
+        int port = uri.getPort();
+        if (port != -1 && port != 80 && port != 443) {
+            builder.append(':').append(port);
+        }
+
+        String path = uri.getRawPath();
+        if (path != null) {
+            while (path.length() > 1 && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            if (!path.equals("/")) {
+                builder.append(path);
+            }
+        }
+
+        String query = normalizeQuery(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            builder.append('?').append(query);
+        }
+        return builder.toString();
+    }
+
+    private static String normalizeQuery(@Nullable String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        List<String> kept = new ArrayList<>();
+        for (String param : rawQuery.split("&")) {
+            if (param.isEmpty()) {
+                continue;
+            }
+            int equals = param.indexOf('=');
+            String name = (equals >= 0 ? param.substring(0, equals) : param).toLowerCase(Locale.ROOT);
+            if (!isTrackingParam(name)) {
+                kept.add(param);
+            }
+        }
+        Collections.sort(kept);
+
+        StringBuilder builder = new StringBuilder();
+        for (String param : kept) {
+            if (builder.length() > 0) {
+                builder.append('&');
+            }
+            builder.append(param);
+        }
+        return builder.toString();
+    }
+
+    private static boolean isTrackingParam(String name) {
+        if (name.startsWith("utm_")) {
+            return true;
+        }
+        for (String tracking : TRACKING_PARAMS) {
+            if (tracking.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stable 64-bit hash of a string
+     * FNV-1a over UTF-8 bytes followed by the MurmurHash3 finalizer for avalanche
+     */
+    public static long hash64(@NonNull String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * 64-bit identity key of an article, for dedup sets and document IDs
+     */
+    public static long key(@NonNull ArticleModel article) {
+        return key(article.getUrl(), article.getTitle(), article.getPublishedAt());
+    }
+
+    /**
+     * 64-bit identity key from an article's fields, e.g. read from a saved document
+     * Articles without a URL fall back to their title and publish date
+     */
+    public static long key(@Nullable String url, @Nullable String title, @Nullable String publishedAt) {
+        if (url == null || url.trim().isEmpty()) {
+            return hash64("title:" + title + "|" + publishedAt);
+        }
+        return hash64(normalizeUrl(url));
+    }
+
+    /**
+     * Firestore document ID of an article
+     * @param article Article to identify
+     * @return ID like "a_0123456789abcdef"
+     */
+    @NonNull
+    public static String articleId(@NonNull ArticleModel article) {
+        return toId(key(article));
+    }
+
+    /**
+     * Firestore document ID for a 64-bit identity key
+     */
+    @NonNull
+    public static String toId(long key) {
+        String hex = Long.toHexString(key);
+        StringBuilder builder = new StringBuilder(ID_PREFIX.length() + 16).append(ID_PREFIX);
+        for (int i = hex.length(); i < 16; i++) {
+            builder.append('0');
+        }
+        return builder.append(hex).toString();
+    }
+
+    /**
+     * Document ID used before canonical identities (32-bit String.hashCode)
+     * Only needed to find and migrate or delete old documents
+     * @param url Article URL
+     * @return Legacy ID, or null if the URL is empty (legacy IDs were timestamps)
+     */
+    @Nullable
+    public static String legacyArticleId(@Nullable String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        return LEGACY_ID_PREFIX + Math.abs(url.hashCode());
+    }
+}
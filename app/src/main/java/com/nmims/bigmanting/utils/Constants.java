@@ -22,11 +22,29 @@ public class Constants {
     public static final String CATEGORY_HEALTH = "health";
     public static final String CATEGORY_SCIENCE = "science";
 
+    // Categories shown as chips, in display order
+    public static final String[] CATEGORIES = {
+            CATEGORY_GENERAL,
+            CATEGORY_TECHNOLOGY,
+            CATEGORY_BUSINESS,
+            CATEGORY_SPORTS,
+            CATEGORY_ENTERTAINMENT,
+            CATEGORY_HEALTH,
+            CATEGORY_SCIENCE
+    };
+
     // Countries
     public static final String COUNTRY_US = "us";
     public static final String COUNTRY_IN = "in";
     public static final String COUNTRY_GB = "gb";
 
+    // Background prefetch budget (per day); requests count feed calls and image downloads
+    public static final int PREFETCH_MAX_REQUESTS_PER_DAY = 56;
+    public static final long PREFETCH_MAX_BYTES_PER_DAY = 25L * 1024 * 1024; // 25 MB
+    public static final int PREFETCH_INTERVAL_HOURS = 6;
+    // Images warmed per category: the first cards of the deck
+    public static final int PREFETCH_LEAD_IMAGES = 3;
+
     // Intent extras
     public static final String EXTRA_ARTICLE = "extra_article";
 }
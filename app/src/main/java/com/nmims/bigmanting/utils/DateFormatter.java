@@ -0,0 +1,134 @@
+package com.nmims.bigmanting.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nmims.bigmanting.models.ArticleModel;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Shared, thread-safe formatting of article publish dates
+ * publishedAt is parsed once per article (ISO 8601, with or without fractional
+ * seconds and offset) and the epoch millis are cached on the model. Labels are
+ * relative ("5m ago", "2h ago", "3d ago") for a week, then an absolute date, and
+ * are cached on the model per minute, so rebinding a row allocates nothing
+ * Refresh relative labels by rebinding once a minute (see DATE_REFRESH_INTERVAL_MS)
+ */
+public final class DateFormatter {
+
+    public static final long DATE_REFRESH_INTERVAL_MS = 60 * 1000L;
+    public static final String UNKNOWN_DATE = "Unknown date";
+
+    private static final long MINUTE_MS = 60 * 1000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final long RELATIVE_LIMIT_MS = 7 * DAY_MS;
+
+    private static final String ABSOLUTE_PATTERN = "MMM dd, yyyy";
+
+    // DateTimeFormatter is immutable, so one instance serves every thread until
+    // the user changes the locale or time zone
+    private static volatile AbsoluteFormat absoluteFormat;
+
+    private DateFormatter() {
+    }
+
+    /**
+     * Parse an ISO 8601 timestamp such as "2024-05-01T10:15:30Z" or
+     * "2024-05-01T10:15:30.123+02:00"; a timestamp without offset is taken as UTC
+     * @return Epoch millis, or -1 if missing or unparsable
+     */
+    public static long parseEpochMillis(@Nullable String iso) {
+        if (iso == null || iso.isEmpty()) {
+            return -1;
+        }
+        try {
+            return OffsetDateTime.parse(iso, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(iso, DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                        .toInstant(ZoneOffset.UTC).toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Label for an article's publish date, cached on the article for the current minute
+     * @param article Article to label
+     * @param now Current time in epoch millis
+     * @return Relative or absolute date label
+     */
+    @NonNull
+    public static String label(@NonNull ArticleModel article, long now) {
+        long minute = now / MINUTE_MS;
+        String cached = article.getCachedDateLabel(minute);
+        if (cached != null) {
+            return cached;
+        }
+        long millis = article.getPublishedAtMillis();
+        String label = millis < 0 ? fallback(article.getPublishedAt()) : format(millis, now);
+        article.setCachedDateLabel(label, minute);
+        return label;
+    }
+
+    /**
+     * Format epoch millis relative to now
+     */
+    @NonNull
+    public static String format(long millis, long now) {
+        long age = now - millis;
+        if (age < 0 || age >= RELATIVE_LIMIT_MS) {
+            return absoluteFormatter().format(Instant.ofEpochMilli(millis));
+        }
+        if (age < MINUTE_MS) {
+            return "Just now";
+        }
+        if (age < HOUR_MS) {
+            return age / MINUTE_MS + "m ago";
+        }
+        if (age < DAY_MS) {
+            return age / HOUR_MS + "h ago";
+        }
+        return age / DAY_MS + "d ago";
+    }
+
+    private static String fallback(@Nullable String raw) {
+        return raw == null || raw.isEmpty() ? UNKNOWN_DATE : raw;
+    }
+
+    /**
+     * Formatter for the current default locale and time zone, rebuilt when either changes
+     */
+    private static DateTimeFormatter absoluteFormatter() {
+        Locale locale = Locale.getDefault();
+        ZoneId zone = ZoneId.systemDefault();
+        AbsoluteFormat current = absoluteFormat;
+        if (current == null || !current.locale.equals(locale) || !current.zone.equals(zone)) {
+            current = new AbsoluteFormat(locale, zone);
+            absoluteFormat = current;
+        }
+        return current.formatter;
+    }
+
+    private static final class AbsoluteFormat {
+        final Locale locale;
+        final ZoneId zone;
+        final DateTimeFormatter formatter;
+
+        AbsoluteFormat(Locale locale, ZoneId zone) {
+            this.locale = locale;
+            this.zone = zone;
+            this.formatter = DateTimeFormatter.ofPattern(ABSOLUTE_PATTERN, locale).withZone(zone);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.nmims.bigmanting.utils;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Arrays;
+
+/**
+ * Compact open-addressing hash set of primitive longs
+ * Stores keys in a single long[] with linear probing (no boxing, no entry
+ * objects), so 10k article keys cost ~160 KB instead of ~600 KB for a
+ * HashSet<Long>. 0 is used as the empty-slot marker and tracked separately.
+ * Not thread-safe.
+ */
+public class LongHashSet {
+
+    private static final float LOAD_FACTOR = 0.5f;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] slots;
+    private int size;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Number of keys to hold without resizing
+     */
+    public LongHashSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @VisibleForTesting
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return hasZero;
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == 0) {
+                return false;
+            }
+            if (slot == key) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return True if the key was not already present
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) > slots.length * LOAD_FACTOR) {
+            resize(slots.length << 1);
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == 0) {
+                slots[i] = key;
+                size++;
+                return true;
+            }
+            if (slot == key) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return True if the key was present
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = mix(key) & mask;
+        while (slots[i] != key) {
+            if (slots[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = i;
+        for (int j = (gap + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = mix(slots[j]) & mask;
+            boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        slots[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Copy the keys into a new array, in no particular order
+     */
+    public long[] toArray() {
+        long[] keys = new long[size];
+        int index = 0;
+        if (hasZero) {
+            keys[index++] = 0;
+        }
+        for (long slot : slots) {
+            if (slot != 0) {
+                keys[index++] = slot;
+            }
+        }
+        return keys;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long key : old) {
+            if (key == 0) {
+                continue;
+            }
+            int i = mix(key) & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = key;
+        }
+    }
+}
@@ -16,6 +16,10 @@ public class SharedPrefsHelper {
     private static final String KEY_DARK_MODE = "dark_mode";
     private static final String KEY_COUNTRY = "country";
     private static final String KEY_NEWS_API_KEY = "news_api_key";
+    private static final String KEY_ARTICLE_IDS_MIGRATED = "article_ids_migrated";
+    private static final String KEY_PREFETCH_DAY = "prefetch_day";
+    private static final String KEY_PREFETCH_REQUESTS = "prefetch_requests";
+    private static final String KEY_PREFETCH_BYTES = "prefetch_bytes";
 
     private final SharedPreferences prefs;
     private final SharedPreferences.Editor editor;
@@ -79,8 +83,44 @@ public class SharedPrefsHelper {
         return prefs.getString(KEY_NEWS_API_KEY, "");
     }
 
-    // Clear all preferences (logout)
+    // Saved article IDs moved to canonical identities
+    public void setArticleIdsMigrated(boolean migrated) {
+        editor.putBoolean(KEY_ARTICLE_IDS_MIGRATED, migrated).apply();
+    }
+
+    public boolean areArticleIdsMigrated() {
+        return prefs.getBoolean(KEY_ARTICLE_IDS_MIGRATED, false);
+    }
+
+    // Background prefetch usage, reset when the day changes
+    public void addPrefetchUsage(long day, int requests, long bytes) {
+        if (prefs.getLong(KEY_PREFETCH_DAY, -1) != day) {
+            editor.putLong(KEY_PREFETCH_DAY, day)
+                    .putInt(KEY_PREFETCH_REQUESTS, 0)
+                    .putLong(KEY_PREFETCH_BYTES, 0);
+        }
+        editor.putInt(KEY_PREFETCH_REQUESTS, getPrefetchRequests(day) + requests)
+                .putLong(KEY_PREFETCH_BYTES, getPrefetchBytes(day) + bytes)
+                .apply();
+    }
+
+    public int getPrefetchRequests(long day) {
+        return prefs.getLong(KEY_PREFETCH_DAY, -1) == day ? prefs.getInt(KEY_PREFETCH_REQUESTS, 0) : 0;
+    }
+
+    public long getPrefetchBytes(long day) {
+        return prefs.getLong(KEY_PREFETCH_DAY, -1) == day ? prefs.getLong(KEY_PREFETCH_BYTES, 0) : 0;
+    }
+
+    // Clear all preferences (logout); the daily prefetch budget is per device and survives it
     public void clearAll() {
-        editor.clear().apply();
+        long prefetchDay = prefs.getLong(KEY_PREFETCH_DAY, -1);
+        int prefetchRequests = prefs.getInt(KEY_PREFETCH_REQUESTS, 0);
+        long prefetchBytes = prefs.getLong(KEY_PREFETCH_BYTES, 0);
+        editor.clear()
+                .putLong(KEY_PREFETCH_DAY, prefetchDay)
+                .putInt(KEY_PREFETCH_REQUESTS, prefetchRequests)
+                .putLong(KEY_PREFETCH_BYTES, prefetchBytes)
+                .apply();
     }
 }
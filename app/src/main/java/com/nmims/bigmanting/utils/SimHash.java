@@ -0,0 +1,71 @@
+package com.nmims.bigmanting.utils;
+
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * 64-bit SimHash fingerprints for near-duplicate text detection
+ * Each word votes on every bit with its own 64-bit hash; texts that share
+ * most of their words end up with fingerprints a few bits apart, so the
+ * same wire story republished with a different headline suffix or a
+ * lightly edited description is caught without comparing strings
+ */
+public final class SimHash {
+
+    // Words shorter than this are mostly articles and prepositions
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    private SimHash() {
+    }
+
+    /**
+     * Fingerprint of a text
+     * @param text Text to fingerprint
+     * @return 64-bit fingerprint, 0 if the text has no usable words
+     */
+    public static long fingerprint(@Nullable String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+
+        int[] votes = new int[64];
+        int tokens = 0;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    long hash = ArticleIdentity.hash64(lower.substring(start, i));
+                    for (int bit = 0; bit < 64; bit++) {
+                        votes[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+                    }
+                    tokens++;
+                }
+                start = -1;
+            }
+        }
+        if (tokens == 0) {
+            return 0;
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Number of differing bits between two fingerprints
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
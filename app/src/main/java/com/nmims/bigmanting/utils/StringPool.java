@@ -0,0 +1,83 @@
+package com.nmims.bigmanting.utils;
+
+import androidx.annotation.Nullable;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.models.SourceModel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared pool for values that repeat across many articles
+ * Feeds and saved lists carry the same few dozen sources and authors; pooling
+ * them keeps one String (and one SourceModel) per distinct value instead of
+ * one per article. The pool is bounded and simply starts over when full
+ * Pooled SourceModels are shared and must be treated as immutable
+ */
+public final class StringPool {
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final Map<String, String> strings = new HashMap<>();
+    private static final Map<String, SourceModel> sources = new HashMap<>();
+
+    private StringPool() {
+    }
+
+    /**
+     * @return The pooled copy of a value, or null for null
+     */
+    @Nullable
+    public static synchronized String intern(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = strings.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (strings.size() >= MAX_ENTRIES) {
+            strings.clear();
+        }
+        strings.put(value, value);
+        return value;
+    }
+
+    /**
+     * Swap an article's author and source for pooled copies
+     * For articles decoded by Gson, which allocates fresh strings for every field
+     */
+    public static void pool(@Nullable ArticleModel article) {
+        if (article == null) {
+            return;
+        }
+        article.setAuthor(intern(article.getAuthor()));
+        SourceModel source = article.getSource();
+        if (source != null) {
+            article.setSource(source(source.getId(), source.getName()));
+        }
+    }
+
+    /**
+     * @return A shared source with this id and name, or null if both are null
+     */
+    @Nullable
+    public static synchronized SourceModel source(@Nullable String id, @Nullable String name) {
+        if (id == null && name == null) {
+            return null;
+        }
+        // '\u0000' never occurs in ids or names
+        String key = id + '\u0000' + name;
+        SourceModel pooled = sources.get(key);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (sources.size() >= MAX_ENTRIES) {
+            sources.clear();
+        }
+        pooled = new SourceModel(intern(id), intern(name));
+        sources.put(key, pooled);
+        return pooled;
+    }
+}
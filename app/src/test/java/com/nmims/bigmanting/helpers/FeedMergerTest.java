@@ -0,0 +1,116 @@
+package com.nmims.bigmanting.helpers;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.models.SourceModel;
+import com.nmims.bigmanting.utils.SimHash;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FeedMergerTest {
+
+    private static final String TITLE =
+            "Central bank raises interest rates for the third time this year to fight inflation";
+    private static final String DESCRIPTION =
+            "Policy makers voted to lift the benchmark rate by a quarter point on Wednesday, "
+                    + "citing persistent price pressure across housing, energy and food markets";
+
+    @Test
+    public void simHash_isCloseForLightlyEditedText() {
+        long original = SimHash.fingerprint(TITLE + " " + DESCRIPTION);
+        long edited = SimHash.fingerprint(TITLE + " " + DESCRIPTION.replace("Wednesday", "Thursday"));
+        long other = SimHash.fingerprint("Local team wins championship after dramatic overtime goal "
+                + "in front of a record crowd at the downtown stadium");
+        assertTrue(SimHash.distance(original, edited) <= 6);
+        assertTrue(SimHash.distance(original, other) > 6);
+    }
+
+    @Test
+    public void simHash_ignoresShortWordsAndCase() {
+        assertEquals(0, SimHash.fingerprint(null));
+        assertEquals(0, SimHash.fingerprint("a to of"));
+        assertEquals(SimHash.fingerprint("Markets Rally Today"), SimHash.fingerprint("markets rally today, a"));
+    }
+
+    @Test
+    public void merge_dropsUrlDuplicatesOfDeckAndIncoming() {
+        FeedMerger merger = new FeedMerger(null, 10);
+        ArticleModel inDeck = article("https://example.com/one", "First story about elections", "Voters head out");
+        ArticleModel sameAsDeck = article("https://www.example.com/one?utm_source=feed", "Another title entirely", "");
+        ArticleModel fresh = article("https://example.com/two", "Second story about weather", "Storm expected");
+        ArticleModel sameAsFresh = article("https://example.com/two/", "Weather update", "");
+
+        List<ArticleModel> merged = merger.merge(Collections.singletonList(inDeck),
+                Arrays.asList(sameAsDeck, fresh, sameAsFresh));
+        assertEquals(Collections.singletonList(fresh), merged);
+    }
+
+    @Test
+    public void merge_dropsNearDuplicateFromAnotherOutlet() {
+        FeedMerger merger = new FeedMerger(null, 10);
+        ArticleModel original = article("https://wire.example/rates", TITLE + " - Wire", DESCRIPTION, "Wire");
+        ArticleModel copy = article("https://paper.example/rates", TITLE + " - Paper",
+                DESCRIPTION.replace("Wednesday", "Thursday"), "Paper");
+        ArticleModel different = article("https://paper.example/sports",
+                "Local team wins championship after dramatic overtime goal",
+                "A record crowd watched the final at the downtown stadium on Sunday night", "Paper");
+
+        List<ArticleModel> merged = merger.merge(Collections.emptyList(),
+                Arrays.asList(original, copy, different));
+        assertEquals(Arrays.asList(original, different), merged);
+    }
+
+    @Test
+    public void merge_keepsArticlesWithoutUsableText() {
+        FeedMerger merger = new FeedMerger(null, 10);
+        ArticleModel first = article("https://example.com/1", null, null);
+        ArticleModel second = article("https://example.com/2", null, null);
+
+        assertEquals(Arrays.asList(first, second),
+                merger.merge(Collections.emptyList(), Arrays.asList(first, second)));
+    }
+
+    @Test
+    public void markSeen_filtersSwipedArticlesAndTheirCopies() {
+        FeedMerger merger = new FeedMerger(null, 10);
+        ArticleModel swiped = article("https://wire.example/rates", TITLE, DESCRIPTION);
+        merger.markSeen(swiped);
+
+        ArticleModel again = article("https://wire.example/rates?ocid=rss", "Changed", "");
+        ArticleModel copy = article("https://paper.example/rates", TITLE,
+                DESCRIPTION.replace("Wednesday", "Thursday"));
+        assertTrue(merger.merge(Collections.emptyList(), Arrays.asList(again, copy)).isEmpty());
+    }
+
+    @Test
+    public void markSeen_forgetsOldestBeyondCapacity() {
+        FeedMerger merger = new FeedMerger(null, 2);
+        ArticleModel oldest = article("https://example.com/1", null, null);
+        merger.markSeen(oldest);
+        merger.markSeen(article("https://example.com/2", null, null));
+        merger.markSeen(article("https://example.com/3", null, null));
+
+        assertEquals(Collections.singletonList(oldest),
+                merger.merge(Collections.emptyList(), Collections.singletonList(oldest)));
+    }
+
+    private static ArticleModel article(String url, String title, String description) {
+        return article(url, title, description, null);
+    }
+
+    private static ArticleModel article(String url, String title, String description, String sourceName) {
+        ArticleModel article = new ArticleModel();
+        article.setUrl(url);
+        article.setTitle(title);
+        article.setDescription(description);
+        if (sourceName != null) {
+            article.setSource(new SourceModel(null, sourceName));
+        }
+        return article;
+    }
+}
@@ -0,0 +1,188 @@
+package com.nmims.bigmanting.helpers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+
+    private static final long SECOND_MS = 1000;
+    private static final long MIN_COOLDOWN_MS = 30 * SECOND_MS;
+    private static final long MAX_COOLDOWN_MS = 5 * 60 * SECOND_MS;
+    private static final int FAILURE_THRESHOLD = 5;
+
+    private long now;
+    private RetryPolicy policy;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        policy = new RetryPolicy(() -> now);
+    }
+
+    @Test
+    public void retryDelay_backsOffExponentiallyWithJitter() {
+        for (int i = 0; i < 100; i++) {
+            long first = RetryPolicy.retryDelay(0, null);
+            long second = RetryPolicy.retryDelay(1, response(503, null));
+            assertTrue(first >= 250 && first <= 500);
+            assertTrue(second >= 500 && second <= 1000);
+        }
+    }
+
+    @Test
+    public void retryDelay_stopsAfterMaxRetries() {
+        assertEquals(-1, RetryPolicy.retryDelay(2, null));
+    }
+
+    @Test
+    public void retryDelay_onlyRetriesTransientStatus() {
+        assertTrue(RetryPolicy.retryDelay(0, response(429, null)) >= 0);
+        assertTrue(RetryPolicy.retryDelay(0, response(502, null)) >= 0);
+        assertEquals(-1, RetryPolicy.retryDelay(0, response(400, null)));
+        assertEquals(-1, RetryPolicy.retryDelay(0, response(401, null)));
+        assertEquals(-1, RetryPolicy.retryDelay(0, response(426, null)));
+    }
+
+    @Test
+    public void retryDelay_honoursRetryAfterUpToCap() {
+        assertEquals(3 * SECOND_MS, RetryPolicy.retryDelay(0, response(429, "3")));
+        assertEquals(0, RetryPolicy.retryDelay(1, response(503, "0")));
+        assertEquals(-1, RetryPolicy.retryDelay(0, response(429, "30")));
+    }
+
+    @Test
+    public void circuit_opensAfterConsecutiveFailures() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            policy.acquire();
+            policy.onFailure(-1);
+        }
+        assertFalse(policy.isOpen());
+
+        policy.acquire();
+        policy.onFailure(-1);
+        assertTrue(policy.isOpen());
+        assertOpen("30s");
+    }
+
+    @Test
+    public void circuit_successResetsFailureCount() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            policy.onFailure(-1);
+        }
+        policy.onSuccess();
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            policy.onFailure(-1);
+        }
+        assertFalse(policy.isOpen());
+        policy.acquire();
+    }
+
+    @Test
+    public void circuit_letsOneTrialThroughAfterCooldown() throws Exception {
+        open();
+        now += MIN_COOLDOWN_MS;
+        assertFalse(policy.isOpen());
+
+        policy.acquire();
+        // Others wait for the trial and are told the cooldown, never "0s"
+        assertOpen("30s");
+
+        policy.onSuccess();
+        policy.acquire();
+        policy.acquire();
+    }
+
+    @Test
+    public void circuit_failedTrialDoublesCooldown() throws Exception {
+        open();
+        now += MIN_COOLDOWN_MS;
+        policy.acquire();
+        policy.onFailure(-1);
+        assertTrue(policy.isOpen());
+
+        now += MIN_COOLDOWN_MS;
+        assertTrue(policy.isOpen());
+        now += MIN_COOLDOWN_MS;
+        assertFalse(policy.isOpen());
+
+        // A successful trial resets the cooldown
+        policy.acquire();
+        policy.onSuccess();
+        open();
+        now += MIN_COOLDOWN_MS;
+        assertFalse(policy.isOpen());
+    }
+
+    @Test
+    public void circuit_cooldownStopsDoublingAtMaximum() throws Exception {
+        open();
+        for (int i = 0; i < 10; i++) {
+            now += MAX_COOLDOWN_MS;
+            policy.acquire();
+            policy.onFailure(-1);
+        }
+        now += MAX_COOLDOWN_MS - 1;
+        assertTrue(policy.isOpen());
+        now += 1;
+        assertFalse(policy.isOpen());
+    }
+
+    @Test
+    public void circuit_opensAtOnceForLongRetryAfter() {
+        policy.onFailure(60 * SECOND_MS);
+        assertTrue(policy.isOpen());
+        now += 60 * SECOND_MS - 1;
+        assertTrue(policy.isOpen());
+        now += 1;
+        assertFalse(policy.isOpen());
+    }
+
+    @Test
+    public void circuit_clampsRetryAfterToMaximumCooldown() {
+        policy.onFailure(24 * 60 * 60 * SECOND_MS);
+        now += MAX_COOLDOWN_MS - 1;
+        assertTrue(policy.isOpen());
+        now += 1;
+        assertFalse(policy.isOpen());
+    }
+
+    @Test
+    public void circuit_shortRetryAfterCountsAsPlainFailure() {
+        policy.onFailure(2 * SECOND_MS);
+        assertFalse(policy.isOpen());
+    }
+
+    private void open() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            policy.onFailure(-1);
+        }
+        assertTrue(policy.isOpen());
+    }
+
+    private void assertOpen(String retryIn) {
+        try {
+            policy.acquire();
+            fail("Circuit should be open");
+        } catch (RetryPolicy.CircuitOpenException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("retrying in " + retryIn));
+        }
+    }
+
+    private static Response response(int code, String retryAfter) {
+        Response.Builder builder = new Response.Builder()
+                .request(new Request.Builder().url("https://newsapi.org/v2/top-headlines").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("HTTP " + code);
+        if (retryAfter != null) {
+            builder.header("Retry-After", retryAfter);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.nmims.bigmanting.helpers;
+
+import com.nmims.bigmanting.models.ArticleModel;
+import com.nmims.bigmanting.utils.ArticleIdentity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class SwipeLogTest {
+
+    private File file;
+    private QueueExecutor executor;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("swipe_log", ".bin");
+        assertTrue(file.delete());
+        executor = new QueueExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    public void recordedSwipesSurviveReload() {
+        SwipeLog log = open();
+        log.record(article(1), SwipeLog.Action.SKIP, 1500);
+        log.record(article(2), SwipeLog.Action.SAVE, -5);
+        executor.drain();
+        assertEquals(SwipeLog.HEADER_BYTES + 2 * SwipeLog.RECORD_BYTES, file.length());
+
+        SwipeLog reloaded = open();
+        assertEquals(2, reloaded.size());
+        assertTrue(reloaded.hasSwiped(key(1)));
+        assertTrue(reloaded.hasSwiped(key(2)));
+        assertFalse(reloaded.hasSwiped(key(3)));
+
+        List<String> events = events(reloaded);
+        assertEquals(key(1) + " SKIP 1500", events.get(0));
+        assertEquals(key(2) + " SAVE 0", events.get(1));
+    }
+
+    @Test
+    public void swipesBeforeLoadGoAfterStoredOnes() {
+        SwipeLog log = open();
+        log.record(article(1), SwipeLog.Action.SKIP, 0);
+        executor.drain();
+
+        // Construction queues the load; this swipe is recorded before it runs
+        SwipeLog reloaded = new SwipeLog(file, executor);
+        reloaded.record(article(2), SwipeLog.Action.SAVE, 0);
+        executor.drain();
+
+        List<String> events = events(open());
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).startsWith(key(1) + " "));
+        assertTrue(events.get(1).startsWith(key(2) + " "));
+    }
+
+    @Test
+    public void tornRecordIsCutOff() throws IOException {
+        SwipeLog log = open();
+        for (int i = 0; i < 3; i++) {
+            log.record(article(i), SwipeLog.Action.SKIP, i);
+        }
+        executor.drain();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            // Part of a fourth record, as left by a crash mid-append
+            out.write(new byte[SwipeLog.RECORD_BYTES - 4]);
+        }
+
+        SwipeLog reloaded = open();
+        assertEquals(3, reloaded.size());
+        assertEquals(SwipeLog.HEADER_BYTES + 3 * SwipeLog.RECORD_BYTES, file.length());
+
+        // Later appends stay aligned
+        reloaded.record(article(3), SwipeLog.Action.SAVE, 0);
+        executor.drain();
+        SwipeLog again = open();
+        assertEquals(4, again.size());
+        assertTrue(again.hasSwiped(key(3)));
+    }
+
+    @Test
+    public void unknownFormatStartsOver() throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[64]);
+        }
+        SwipeLog log = open();
+        assertEquals(0, log.size());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void compactionKeepsNewestEventPerArticle() {
+        SwipeLog log = open();
+        int articles = SwipeLog.RETAINED_EVENTS + 1000;
+        // Every article swiped in several rounds, enough to pass MAX_EVENTS
+        int rounds = SwipeLog.MAX_EVENTS / articles + 1;
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < articles; i++) {
+                log.record(article(i), round == rounds - 1 ? SwipeLog.Action.SAVE : SwipeLog.Action.SKIP, round);
+            }
+        }
+        executor.drain();
+
+        assertEquals(SwipeLog.RETAINED_EVENTS, log.size());
+        // The articles swiped least recently are forgotten
+        assertFalse(log.hasSwiped(key(0)));
+        assertFalse(log.hasSwiped(key(999)));
+        assertTrue(log.hasSwiped(key(1000)));
+        assertTrue(log.hasSwiped(key(articles - 1)));
+        assertEquals(SwipeLog.HEADER_BYTES + (long) SwipeLog.RETAINED_EVENTS * SwipeLog.RECORD_BYTES,
+                file.length());
+
+        List<String> events = events(log);
+        assertEquals(key(1000) + " SAVE " + (rounds - 1), events.get(0));
+        assertEquals(key(articles - 1) + " SAVE " + (rounds - 1), events.get(events.size() - 1));
+
+        // The compacted file round-trips
+        assertEquals(events, events(open()));
+    }
+
+    @Test
+    public void clearDeletesFile() {
+        SwipeLog log = open();
+        log.record(article(1), SwipeLog.Action.SKIP, 0);
+        executor.drain();
+        log.clear();
+        executor.drain();
+
+        assertEquals(0, log.size());
+        assertFalse(log.hasSwiped(key(1)));
+        assertFalse(file.exists());
+    }
+
+    private SwipeLog open() {
+        SwipeLog log = new SwipeLog(file, executor);
+        executor.drain();
+        return log;
+    }
+
+    private static List<String> events(SwipeLog log) {
+        List<String> events = new ArrayList<>();
+        log.forEachEvent((key, action, timestamp, dwellMs) -> events.add(key + " " + action + " " + dwellMs));
+        return events;
+    }
+
+    private static ArticleModel article(int index) {
+        ArticleModel article = new ArticleModel();
+        article.setUrl("https://example.com/story/" + index);
+        return article;
+    }
+
+    private static long key(int index) {
+        return ArticleIdentity.key(article(index));
+    }
+
+    /**
+     * Runs disk work when the test asks for it, in submission order
+     */
+    private static class QueueExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void drain() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.nmims.bigmanting.utils;
+
+import com.nmims.bigmanting.models.ArticleModel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArticleIdentityTest {
+
+    @Test
+    public void normalizeUrl_dropsTrackingParameters() {
+        assertEquals("https://example.com/story?id=7",
+                ArticleIdentity.normalizeUrl("https://example.com/story?utm_source=x&id=7&fbclid=abc&ref=home"));
+    }
+
+    @Test
+    public void normalizeUrl_sortsRemainingParameters() {
+        assertEquals(ArticleIdentity.normalizeUrl("https://example.com/a?b=2&a=1"),
+                ArticleIdentity.normalizeUrl("https://example.com/a?a=1&b=2"));
+    }
+
+    @Test
+    public void normalizeUrl_lowerCasesHostAndDropsWww() {
+        assertEquals("https://example.com/Story",
+                ArticleIdentity.normalizeUrl("http://WWW.Example.COM/Story"));
+    }
+
+    @Test
+    public void normalizeUrl_dropsDefaultPortFragmentAndTrailingSlash() {
+        assertEquals("https://example.com/story",
+                ArticleIdentity.normalizeUrl("https://example.com:443/story/#comments"));
+        assertEquals("https://example.com:8080/story",
+                ArticleIdentity.normalizeUrl("https://example.com:8080/story/"));
+    }
+
+    @Test
+    public void normalizeUrl_handlesNullBlankAndUnparsable() {
+        assertEquals("", ArticleIdentity.normalizeUrl(null));
+        assertEquals("", ArticleIdentity.normalizeUrl("   "));
+        assertEquals("not a url", ArticleIdentity.normalizeUrl(" not a url "));
+    }
+
+    @Test
+    public void key_isEqualForEquivalentUrls() {
+        assertEquals(ArticleIdentity.key("https://www.example.com/story/?utm_medium=social", "A", "2024"),
+                ArticleIdentity.key("http://example.com/story", "B", "2025"));
+    }
+
+    @Test
+    public void key_fallsBackToTitleAndDateWithoutUrl() {
+        long withNull = ArticleIdentity.key(null, "Title", "2024-05-01T10:00:00Z");
+        long withBlank = ArticleIdentity.key("  ", "Title", "2024-05-01T10:00:00Z");
+        assertEquals(withNull, withBlank);
+        assertNotEquals(withNull, ArticleIdentity.key(null, "Title", "2024-05-02T10:00:00Z"));
+        assertNotEquals(withNull, ArticleIdentity.key(null, "Other", "2024-05-01T10:00:00Z"));
+    }
+
+    @Test
+    public void key_ofArticleMatchesKeyOfItsFields() {
+        ArticleModel article = new ArticleModel();
+        article.setUrl("https://example.com/story?gclid=1");
+        article.setTitle("Title");
+        assertEquals(ArticleIdentity.key("https://example.com/story", null, null), ArticleIdentity.key(article));
+    }
+
+    @Test
+    public void toId_isZeroPaddedHex() {
+        assertEquals("a_000000000000002a", ArticleIdentity.toId(42));
+        assertEquals("a_ffffffffffffffff", ArticleIdentity.toId(-1));
+    }
+
+    @Test
+    public void legacyArticleId_isNullWithoutUrl() {
+        assertNull(ArticleIdentity.legacyArticleId(null));
+        assertNull(ArticleIdentity.legacyArticleId(""));
+        assertNotNull(ArticleIdentity.legacyArticleId("https://example.com"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.nmims.bigmanting.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class DateFormatterTest {
+
+    private static final long MINUTE_MS = 60 * 1000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    // 2024-05-01T10:15:30Z
+    private static final long MAY_1 = 1714558530000L;
+
+    private Locale locale;
+    private TimeZone timeZone;
+
+    @Before
+    public void setUp() {
+        locale = Locale.getDefault();
+        timeZone = TimeZone.getDefault();
+        Locale.setDefault(Locale.US);
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(locale);
+        TimeZone.setDefault(timeZone);
+    }
+
+    @Test
+    public void parseEpochMillis_acceptsUtcOffsetAndFraction() {
+        assertEquals(MAY_1, DateFormatter.parseEpochMillis("2024-05-01T10:15:30Z"));
+        assertEquals(MAY_1 + 123, DateFormatter.parseEpochMillis("2024-05-01T10:15:30.123Z"));
+        assertEquals(MAY_1, DateFormatter.parseEpochMillis("2024-05-01T12:15:30+02:00"));
+    }
+
+    @Test
+    public void parseEpochMillis_takesTimestampWithoutOffsetAsUtc() {
+        assertEquals(MAY_1, DateFormatter.parseEpochMillis("2024-05-01T10:15:30"));
+    }
+
+    @Test
+    public void parseEpochMillis_rejectsMissingAndInvalid() {
+        assertEquals(-1, DateFormatter.parseEpochMillis(null));
+        assertEquals(-1, DateFormatter.parseEpochMillis(""));
+        assertEquals(-1, DateFormatter.parseEpochMillis("yesterday"));
+        assertEquals(-1, DateFormatter.parseEpochMillis("2024-05-01"));
+    }
+
+    @Test
+    public void format_isRelativeWithinAWeek() {
+        assertEquals("Just now", DateFormatter.format(MAY_1, MAY_1 + 59 * 1000L));
+        assertEquals("5m ago", DateFormatter.format(MAY_1, MAY_1 + 5 * MINUTE_MS));
+        assertEquals("2h ago", DateFormatter.format(MAY_1, MAY_1 + 2 * HOUR_MS + 59 * MINUTE_MS));
+        assertEquals("6d ago", DateFormatter.format(MAY_1, MAY_1 + 7 * DAY_MS - 1));
+    }
+
+    @Test
+    public void format_isAbsoluteAfterAWeekOrInTheFuture() {
+        assertEquals("May 01, 2024", DateFormatter.format(MAY_1, MAY_1 + 7 * DAY_MS));
+        assertEquals("May 01, 2024", DateFormatter.format(MAY_1, MAY_1 - MINUTE_MS));
+    }
+
+    @Test
+    public void format_followsDefaultTimeZone() {
+        TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+        // 10:15 UTC is already the next day at UTC+14
+        assertEquals("May 02, 2024", DateFormatter.format(MAY_1, MAY_1 + 30 * DAY_MS));
+    }
+}
@@ -0,0 +1,127 @@
+package com.nmims.bigmanting.utils;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+
+    // A set sized for 8 keys has 16 slots (load factor 0.5)
+    private static final int SLOTS = 16;
+
+    @Test
+    public void addContainsRemove() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(5));
+        assertFalse(set.add(5));
+        assertTrue(set.contains(5));
+        assertEquals(1, set.size());
+        assertTrue(set.remove(5));
+        assertFalse(set.remove(5));
+        assertFalse(set.contains(5));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void zeroIsAnOrdinaryKey() {
+        LongHashSet set = new LongHashSet();
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertTrue(set.contains(0));
+        assertArrayEquals(new long[]{0}, set.toArray());
+        assertTrue(set.remove(0));
+        assertFalse(set.contains(0));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    public void remove_shiftsBackProbeChainAcrossWraparound() {
+        // Three keys homed in the last slot fill slots 15, 0 and 1; a key homed
+        // in slot 0 probes on to slot 2
+        long[] last = keysWithHome(SLOTS - 1, 3);
+        long first = keysWithHome(0, 1)[0];
+        LongHashSet set = new LongHashSet(SLOTS / 2);
+        for (long key : last) {
+            set.add(key);
+        }
+        set.add(first);
+
+        // Emptying slot 15 must pull the wrapped keys back, or they become unreachable
+        assertTrue(set.remove(last[0]));
+        assertFalse(set.contains(last[0]));
+        assertTrue(set.contains(last[1]));
+        assertTrue(set.contains(last[2]));
+        assertTrue(set.contains(first));
+
+        assertTrue(set.remove(last[1]));
+        assertTrue(set.contains(last[2]));
+        assertTrue(set.contains(first));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void remove_keepsWrappedKeysInTheirHomeSlots() {
+        // Slots 15, 0 and 1 hold keys homed in exactly those slots; emptying
+        // slot 15 must not pull the others back across the wrap, before their home
+        long last = keysWithHome(SLOTS - 1, 1)[0];
+        long first = keysWithHome(0, 1)[0];
+        long second = keysWithHome(1, 1)[0];
+        LongHashSet set = new LongHashSet(SLOTS / 2);
+        set.add(last);
+        set.add(first);
+        set.add(second);
+
+        assertTrue(set.remove(last));
+        assertTrue(set.contains(first));
+        assertTrue(set.contains(second));
+        assertFalse(set.contains(last));
+    }
+
+    @Test
+    public void matchesHashSetUnderRandomOperations() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            // Small key range so adds and removes collide often
+            long key = random.nextInt(2000) - 1000;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.add(key));
+            } else {
+                assertEquals(expected.remove(key), set.remove(key));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (long key = -1000; key < 1000; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+        assertEquals(expected.size(), set.toArray().length);
+    }
+
+    @Test
+    public void clear_removesEverything() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 0; key < 100; key++) {
+            set.add(key);
+        }
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(50));
+    }
+
+    private static long[] keysWithHome(int home, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            if ((LongHashSet.mix(key) & (SLOTS - 1)) == home) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}